@@ -0,0 +1,72 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import com.simpleplugins.simplezoom.ConfigUpdater;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConfigUpdater#mergeWithDefaults as run on every enable and reload: the common
+ * up-to-date file, which is skipped on its fingerprint, and a file missing one
+ * key that has to be parsed and patched.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigUpdaterBenchmark {
+
+    /** True to start every merge from a file missing one key */
+    @Param({"false", "true"})
+    public boolean missingKey;
+
+    private ZoomFixture fixture;
+    private Path configFile;
+    private String content;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = ZoomFixture.start();
+        configFile = fixture.plugin.getDataFolder().toPath().resolve("config.yml");
+        content = Files.readString(configFile, StandardCharsets.UTF_8);
+        if (missingKey) {
+            content = content.replaceAll("(?m)^remove-on-stop-zoom:.*\\R", "");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void writeConfig() throws IOException {
+        // Rewriting the unchanged file would bump its mtime and defeat the fingerprint
+        if (missingKey) {
+            Files.writeString(configFile, content, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public boolean mergeWithDefaults() {
+        return ConfigUpdater.mergeWithDefaults(fixture.plugin);
+    }
+}
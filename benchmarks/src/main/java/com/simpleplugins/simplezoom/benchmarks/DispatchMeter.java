@@ -0,0 +1,53 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Wall time and bytes allocated on the calling thread between {@link #start()}
+ * and {@link #stop()}, summed over every measured call. Used by the load
+ * simulator and the trace replay to time only the plugin's part of a tick.
+ */
+final class DispatchMeter {
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private long startNanos;
+    private long startBytes;
+
+    long nanos;
+    long bytes;
+    long calls;
+
+    void start() {
+        startBytes = threads.getCurrentThreadAllocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        nanos += System.nanoTime() - startNanos;
+        bytes += threads.getCurrentThreadAllocatedBytes() - startBytes;
+        calls++;
+    }
+
+    void reset() {
+        nanos = 0;
+        bytes = 0;
+        calls = 0;
+    }
+
+    /**
+     * "mean, p50, p99, max" of per-tick times, in milliseconds.
+     */
+    static String tickSummary(long[] tickNanos) {
+        if (tickNanos.length == 0) return "no ticks";
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return String.format(Locale.ROOT, "mean %.3f, p50 %.3f, p99 %.3f, max %.3f",
+                Arrays.stream(sorted).average().orElse(0) / 1e6, sorted[n / 2] / 1e6,
+                sorted[Math.min(n - 1, n * 99 / 100)] / 1e6, sorted[n - 1] / 1e6);
+    }
+}
@@ -0,0 +1,77 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.simpleplugins.simplezoom.listener.InventoryGuardListener;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.InventoryView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InventoryGuardListener#onInventoryClick for a player whose off-hand item is
+ * parked in a slot: a click on the parked slot (cancelled) and on another slot.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryGuardBenchmark {
+
+    private ZoomFixture fixture;
+    private InventoryGuardListener listener;
+    private InventoryClickEvent parkedClick;
+    private InventoryClickEvent otherClick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = ZoomFixture.start();
+        listener = new InventoryGuardListener(fixture.zoomManager);
+
+        PlayerMock player = fixture.addPlayer(ZoomFixture.Path.FREE_SLOT);
+        fixture.zoomManager.giveSpyglass(player);
+        int parked = ((ZoomSession.InSlot) fixture.zoomManager.getSession(player).stash()).slot();
+
+        InventoryView view = player.getOpenInventory();
+        parkedClick = new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER,
+                ZoomFixture.rawSlot(parked), ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        otherClick = new InventoryClickEvent(view, InventoryType.SlotType.CONTAINER,
+                ZoomFixture.rawSlot(parked == 20 ? 21 : 20), ClickType.LEFT, InventoryAction.PICKUP_ALL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public boolean clickParkedSlot() {
+        parkedClick.setCancelled(false);
+        listener.onInventoryClick(parkedClick);
+        return parkedClick.isCancelled();
+    }
+
+    @Benchmark
+    public boolean clickOtherSlot() {
+        otherClick.setCancelled(false);
+        listener.onInventoryClick(otherClick);
+        return otherClick.isCancelled();
+    }
+}
@@ -0,0 +1,262 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.simpleplugins.simplezoom.zoom.ZoomStopDetector;
+import io.papermc.paper.event.player.PlayerStopUsingItemEvent;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.event.Event;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.PluginManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Headless load test: N scripted players on a MockBukkit server, driving
+ * SimpleZoom the way real players do, one simulated tick at a time and as
+ * fast as the machine allows. Reports the plugin's wall time and allocation
+ * per tick, then checks that every item the players started with is still
+ * there exactly once.
+ * <p>
+ * Every player sends a move packet most ticks, as real clients do, and now and
+ * then walks into another block, scrolls the hotbar, clicks in the inventory,
+ * releases the spyglass or runs /zoom. Events go through the plugin manager,
+ * so only the listeners SimpleZoom currently has registered see them. Every
+ * tenth player turns on remove-on-stop-zoom for themselves with /zoom settings.
+ * Only the dispatch of events and commands and the scheduler tick are timed;
+ * building the events is not. MockBukkit's own dispatch is part of the figure,
+ * so compare runs of this harness with each other, not with a live server.
+ * The update check and bStats are off (see {@link ZoomFixture}); a run that
+ * finds either on at the end reports nothing.
+ * <p>
+ * Run after {@code mvn package}:
+ * {@code java -cp target/benchmarks.jar com.simpleplugins.simplezoom.benchmarks.LoadSimulator [players] [ticks] [seed]}.
+ * Exits with status 1 if an item was lost or duplicated or a zoom never ended.
+ */
+public final class LoadSimulator {
+
+    private static final int WARMUP_TICKS = 200;
+
+    /** Per-tick chances of each action */
+    private enum Profile {
+        CAMPER(0.002, 0.002, 0.001, 0.005),
+        WALKER(0.05, 0.005, 0.002, 0.01),
+        FIDGETER(0.01, 0.05, 0.02, 0.02);
+
+        final double walk;
+        final double scroll;
+        final double click;
+        final double release;
+
+        Profile(double walk, double scroll, double click, double release) {
+            this.walk = walk;
+            this.scroll = scroll;
+            this.click = click;
+            this.release = release;
+        }
+    }
+
+    private static final class SimPlayer {
+        final PlayerMock player;
+        final Profile profile;
+        int heldSlot;
+        boolean stepBack;
+
+        SimPlayer(PlayerMock player, Profile profile) {
+            this.player = player;
+            this.profile = profile;
+        }
+    }
+
+    private final ZoomFixture fixture;
+    private final PluginManager pluginManager;
+    private final ZoomStopDetector stopDetector;
+    private final SplittableRandom random;
+    private final DispatchMeter meter = new DispatchMeter();
+    private final List<SimPlayer> players = new ArrayList<>();
+    private final List<PlayerMock> playerMocks = new ArrayList<>();
+
+    private final long[] actions = new long[Action.values().length];
+
+    private enum Action {
+        LOOK, WALK, SCROLL, CLICK, RELEASE, ZOOM
+    }
+
+    private LoadSimulator(long seed) {
+        this.fixture = ZoomFixture.start();
+        this.pluginManager = fixture.server.getPluginManager();
+        this.stopDetector = new ZoomStopDetector(fixture.zoomManager);
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) {
+        int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        LoadSimulator simulator = new LoadSimulator(seed);
+        boolean ok;
+        try {
+            ok = simulator.run(playerCount, ticks, seed);
+        } finally {
+            simulator.fixture.stop();
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private boolean run(int playerCount, int ticks, long seed) {
+        Map<ItemStack, Integer> before = spawn(playerCount);
+
+        for (int tick = 0; tick < WARMUP_TICKS; tick++) {
+            tick(tick);
+        }
+        Arrays.fill(actions, 0);
+        meter.reset();
+        long zoomsBefore = fixture.totalGives();
+
+        long[] nanos = new long[ticks];
+        long totalBytes = 0;
+        long dispatched = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            meter.reset();
+            tick(WARMUP_TICKS + tick);
+            nanos[tick] = meter.nanos;
+            totalBytes += meter.bytes;
+            dispatched += meter.calls;
+        }
+        long zooms = fixture.totalGives() - zoomsBefore;
+        int zoomingAtEnd = fixture.zoomManager.getSessionCount();
+
+        fixture.endAllZooms(playerMocks);
+        int sessionsLeft = fixture.zoomManager.getSessionCount();
+        ZoomFixture.ItemBalance items = ZoomFixture.ItemBalance.of(before, fixture.countItems(playerMocks));
+        boolean ok = items.ok() && sessionsLeft == 0 && fixture.restoresMatchGives();
+        fixture.requireOffline();
+
+        System.out.println("SimpleZoom load simulation");
+        System.out.printf(Locale.ROOT, "players          %d%n", playerCount);
+        System.out.printf(Locale.ROOT, "ticks            %d (+%d warmup), seed %d%n", ticks, WARMUP_TICKS, seed);
+        System.out.printf(Locale.ROOT, "zooms started    %d, %d zooming at the end%n", zooms, zoomingAtEnd);
+        System.out.printf(Locale.ROOT, "actions          look %d, walk %d, scroll %d, click %d, release %d, zoom %d%n",
+                actions[0], actions[1], actions[2], actions[3], actions[4], actions[5]);
+        System.out.printf(Locale.ROOT, "plugin ms/tick   %s%n", DispatchMeter.tickSummary(nanos));
+        System.out.printf(Locale.ROOT, "plugin alloc     %.1f KB/tick, %.1f B/dispatch%n",
+                totalBytes / 1024.0 / ticks, dispatched == 0 ? 0.0 : (double) totalBytes / dispatched);
+        System.out.printf(Locale.ROOT, "gives/restores   %s%n", fixture.givesAndRestores());
+        System.out.printf(Locale.ROOT, "items            %s (%d lost, %d duplicated, %d sessions left)%n",
+                ok ? "OK" : "FAILED", items.lost(), items.duplicated(), sessionsLeft);
+        return ok;
+    }
+
+    /**
+     * Adds the players, a third each with an empty off hand, a named shield
+     * and a free slot, and a named shield with a full inventory.
+     *
+     * @return every item they hold
+     */
+    private Map<ItemStack, Integer> spawn(int count) {
+        Profile[] profiles = Profile.values();
+        ZoomFixture.Path[] paths = ZoomFixture.Path.values();
+        for (int i = 0; i < count; i++) {
+            PlayerMock player = fixture.addPlayer(paths[i % paths.length]);
+            player.setOp(true);
+            player.addAttachment(fixture.plugin, "szoom.bypass.ratelimit", true);
+            ItemStack offHand = player.getInventory().getItemInOffHand();
+            if (offHand.getType() != Material.AIR) {
+                ItemMeta meta = offHand.getItemMeta();
+                meta.displayName(Component.text("sim-" + i));
+                offHand.setItemMeta(meta);
+                player.getInventory().setItemInOffHand(offHand);
+            }
+            if (i % 10 == 0) {
+                player.performCommand("zoom settings stop");
+            }
+            players.add(new SimPlayer(player, profiles[i % profiles.length]));
+            playerMocks.add(player);
+        }
+        return fixture.countItems(playerMocks);
+    }
+
+    private void tick(int tick) {
+        for (SimPlayer sim : players) {
+            act(sim);
+        }
+        if ((tick & 1) == 0) {
+            meter.start();
+            stopDetector.checkSessions();
+            meter.stop();
+        }
+        meter.start();
+        fixture.server.getScheduler().performOneTick();
+        meter.stop();
+    }
+
+    private void act(SimPlayer sim) {
+        PlayerMock player = sim.player;
+        Profile profile = sim.profile;
+        boolean zooming = fixture.zoomManager.hasZoomSpyglass(player);
+
+        if (!zooming && random.nextDouble() < 0.02) {
+            actions[Action.ZOOM.ordinal()]++;
+            meter.start();
+            player.performCommand("zoom");
+            meter.stop();
+            return;
+        }
+
+        if (random.nextDouble() < profile.walk) {
+            Location from = player.getLocation();
+            Location to = from.clone().add(sim.stepBack ? -1 : 1, 0, 0);
+            sim.stepBack = !sim.stepBack;
+            actions[Action.WALK.ordinal()]++;
+            dispatch(new PlayerMoveEvent(player, from, to));
+            player.setLocation(to);
+        } else if (random.nextDouble() < 0.8) {
+            Location from = player.getLocation();
+            Location to = from.clone();
+            to.setYaw(from.getYaw() + 3f);
+            actions[Action.LOOK.ordinal()]++;
+            dispatch(new PlayerMoveEvent(player, from, to));
+            player.setLocation(to);
+        }
+
+        if (random.nextDouble() < profile.scroll) {
+            int next = (sim.heldSlot + 1) % 9;
+            actions[Action.SCROLL.ordinal()]++;
+            dispatch(new PlayerItemHeldEvent(player, sim.heldSlot, next));
+            player.getInventory().setHeldItemSlot(next);
+            sim.heldSlot = next;
+        }
+
+        if (random.nextDouble() < profile.click) {
+            int slot = 9 + random.nextInt(27);
+            actions[Action.CLICK.ordinal()]++;
+            dispatch(new InventoryClickEvent(player.getOpenInventory(), InventoryType.SlotType.CONTAINER,
+                    ZoomFixture.rawSlot(slot), ClickType.LEFT, InventoryAction.PICKUP_ALL));
+        }
+
+        if (zooming && random.nextDouble() < profile.release) {
+            actions[Action.RELEASE.ordinal()]++;
+            dispatch(new PlayerStopUsingItemEvent(player, player.getInventory().getItemInOffHand(), 20));
+        }
+    }
+
+    private void dispatch(Event event) {
+        meter.start();
+        pluginManager.callEvent(event);
+        meter.stop();
+    }
+}
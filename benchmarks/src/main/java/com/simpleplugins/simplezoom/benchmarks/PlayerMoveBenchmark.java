@@ -0,0 +1,71 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.simpleplugins.simplezoom.listener.PlayerMoveListener;
+import org.bukkit.Location;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PlayerMoveListener#onPlayerMove for a look-only move, the most common move
+ * packet, from a zooming and a non-zooming player.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerMoveBenchmark {
+
+    private ZoomFixture fixture;
+    private PlayerMoveListener listener;
+    private PlayerMoveEvent zoomingMove;
+    private PlayerMoveEvent idleMove;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = ZoomFixture.start();
+        listener = new PlayerMoveListener(fixture.zoomManager);
+
+        PlayerMock zooming = fixture.addPlayer(ZoomFixture.Path.EMPTY_HAND);
+        fixture.zoomManager.giveSpyglass(zooming);
+        zoomingMove = lookOnlyMove(zooming);
+        idleMove = lookOnlyMove(fixture.addPlayer(ZoomFixture.Path.EMPTY_HAND));
+    }
+
+    private static PlayerMoveEvent lookOnlyMove(PlayerMock player) {
+        Location from = player.getLocation();
+        Location to = from.clone();
+        to.setYaw(from.getYaw() + 5f);
+        return new PlayerMoveEvent(player, from, to);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public void lookWhileZooming() {
+        listener.onPlayerMove(zoomingMove);
+    }
+
+    @Benchmark
+    public void lookWhileNotZooming() {
+        listener.onPlayerMove(idleMove);
+    }
+}
@@ -0,0 +1,66 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZoomManager#hasZoomSpyglass, the check every listener starts with.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionLookupBenchmark {
+
+    @Param({"0", "1000"})
+    public int sessions;
+
+    private ZoomFixture fixture;
+    private PlayerMock idlePlayer;
+    private PlayerMock zoomingPlayer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = ZoomFixture.start();
+        for (int i = 0; i < sessions; i++) {
+            PlayerMock player = fixture.addPlayer(ZoomFixture.Path.EMPTY_HAND);
+            fixture.zoomManager.giveSpyglass(player);
+            zoomingPlayer = player;
+        }
+        idlePlayer = fixture.addPlayer(ZoomFixture.Path.EMPTY_HAND);
+        if (zoomingPlayer == null) {
+            zoomingPlayer = idlePlayer;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public boolean notZooming() {
+        return fixture.zoomManager.hasZoomSpyglass(idlePlayer);
+    }
+
+    @Benchmark
+    public boolean zooming() {
+        return fixture.zoomManager.hasZoomSpyglass(zoomingPlayer);
+    }
+}
@@ -0,0 +1,286 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.simpleplugins.simplezoom.trace.TraceReader;
+import com.simpleplugins.simplezoom.trace.TraceRecorder;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
+import io.papermc.paper.event.player.PlayerStopUsingItemEvent;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.PluginManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Replays a trace recorded with trace-events through SimpleZoom on a
+ * MockBukkit server, tick by tick and at full speed, so a problem seen on a
+ * live server becomes a repeatable benchmark and regression check.
+ * <p>
+ * Players are recreated with their recorded uuids. Before each /zoom the
+ * player's off hand is rebuilt to the recorded state (empty, an item with a
+ * free slot, an item with a full inventory), since the trace holds no
+ * inventories. Events go through the plugin manager, as in
+ * {@link LoadSimulator}, and the same dispatch-only timing is reported,
+ * with the update check and bStats off as there.
+ * <p>
+ * Checked after every tick: a player with a spyglass session still has the
+ * spyglass in their off hand. Checked at the end, after ending every zoom:
+ * no session is left, every give was restored, and no item was lost or
+ * duplicated.
+ * <p>
+ * {@code java -cp target/benchmarks.jar com.simpleplugins.simplezoom.benchmarks.TraceReplay <trace> [runs]}.
+ * Exits with status 1 if a check failed in any run.
+ */
+public final class TraceReplay {
+
+    private static final ItemStack SPYGLASS = new ItemStack(Material.SPYGLASS);
+    private static final ItemStack DRAGGED = new ItemStack(Material.DIRT);
+
+    private final ZoomFixture fixture;
+    private final PluginManager pluginManager;
+    private final DispatchMeter meter = new DispatchMeter();
+    private final Map<Integer, PlayerMock> byNumber = new HashMap<>();
+    private final Map<UUID, PlayerMock> byId = new HashMap<>();
+    private final List<PlayerMock> everyone = new ArrayList<>();
+    /** Items the players should hold, updated whenever an off hand is rebuilt */
+    private final Map<ItemStack, Integer> expected = new HashMap<>();
+
+    private long events;
+    private long skipped;
+    private long violations;
+
+    private TraceReplay() {
+        this.fixture = ZoomFixture.start();
+        this.pluginManager = fixture.server.getPluginManager();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReplay <trace file> [runs]");
+            System.exit(2);
+        }
+        Path trace = Path.of(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        boolean ok = true;
+        for (int run = 1; run <= runs; run++) {
+            TraceReplay replay = new TraceReplay();
+            try {
+                ok &= replay.run(trace, run);
+            } finally {
+                replay.fixture.stop();
+            }
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    private boolean run(Path trace, int run) throws IOException {
+        List<Long> tickNanos = new ArrayList<>();
+        long totalBytes = 0;
+        long dispatched = 0;
+        int tick = 0;
+        try (TraceReader reader = new TraceReader(trace)) {
+            TraceReader.Event event;
+            while ((event = reader.next()) != null) {
+                while (tick < event.tick()) {
+                    meter.start();
+                    fixture.server.getScheduler().performOneTick();
+                    meter.stop();
+                    checkSessions();
+                    tickNanos.add(meter.nanos);
+                    totalBytes += meter.bytes;
+                    dispatched += meter.calls;
+                    meter.reset();
+                    tick++;
+                }
+                replay(event);
+                events++;
+            }
+        }
+        long[] nanos = tickNanos.stream().mapToLong(Long::longValue).toArray();
+        long totalNanos = Arrays.stream(nanos).sum() + meter.nanos;
+        totalBytes += meter.bytes;
+        dispatched += meter.calls;
+        long zooms = fixture.totalGives();
+
+        fixture.endAllZooms(everyone);
+        int sessionsLeft = fixture.zoomManager.getSessionCount();
+        ZoomFixture.ItemBalance items = ZoomFixture.ItemBalance.of(expected, fixture.countItems(everyone));
+        boolean ok = items.ok() && sessionsLeft == 0 && violations == 0 && fixture.restoresMatchGives();
+        fixture.requireOffline();
+
+        System.out.printf(Locale.ROOT, "SimpleZoom trace replay, run %d: %s%n", run, trace.getFileName());
+        System.out.printf(Locale.ROOT, "events           %d (%d skipped), %d players, %d ticks%n",
+                events, skipped, everyone.size(), tick);
+        System.out.printf(Locale.ROOT, "zooms started    %d%n", zooms);
+        System.out.printf(Locale.ROOT, "plugin ms/tick   %s%n", DispatchMeter.tickSummary(nanos));
+        System.out.printf(Locale.ROOT, "plugin total     %.3f ms, %.1f KB allocated, %.1f B/dispatch%n",
+                totalNanos / 1e6, totalBytes / 1024.0,
+                dispatched == 0 ? 0.0 : (double) totalBytes / dispatched);
+        System.out.printf(Locale.ROOT, "gives/restores   %s%n", fixture.givesAndRestores());
+        System.out.printf(Locale.ROOT, "checks           %s (%d lost, %d duplicated, %d sessions left, %d spyglass violations)%n",
+                ok ? "OK" : "FAILED", items.lost(), items.duplicated(), sessionsLeft, violations);
+        return ok;
+    }
+
+    private void replay(TraceReader.Event event) {
+        if (event instanceof TraceReader.Player joined) {
+            join(joined);
+            return;
+        }
+        PlayerMock player = byNumber.get(event.player());
+        if (player == null) {
+            skipped++;
+            return;
+        }
+        switch (event) {
+            case TraceReader.Command command -> {
+                if (command.args().isEmpty() && !fixture.zoomManager.hasZoomSpyglass(player)) {
+                    rebuildOffHand(player, command.offHand());
+                }
+                meter.start();
+                player.performCommand(command.args().isEmpty() ? "zoom" : "zoom " + command.args());
+                meter.stop();
+            }
+            case TraceReader.Move move -> {
+                Location from = player.getLocation();
+                Location to = new Location(from.getWorld(), move.x(), move.y(), move.z(), from.getYaw(), from.getPitch());
+                dispatch(new PlayerMoveEvent(player, from, to));
+                player.setLocation(to);
+            }
+            case TraceReader.Held held -> {
+                dispatch(new PlayerItemHeldEvent(player, held.previousSlot(), held.newSlot()));
+                player.getInventory().setHeldItemSlot(held.newSlot());
+            }
+            case TraceReader.Click click -> {
+                ClickType type;
+                InventoryAction action;
+                try {
+                    type = ClickType.valueOf(click.click());
+                    action = InventoryAction.valueOf(click.action());
+                } catch (IllegalArgumentException e) {
+                    skipped++;
+                    return;
+                }
+                InventoryView view = player.getOpenInventory();
+                InventoryType.SlotType slotType = click.rawSlot() < 0
+                        ? InventoryType.SlotType.OUTSIDE : view.getSlotType(click.rawSlot());
+                dispatch(new InventoryClickEvent(view, slotType, click.rawSlot(), type, action, click.hotbarButton()));
+            }
+            case TraceReader.Drag drag -> {
+                Map<Integer, ItemStack> slots = new HashMap<>();
+                for (int rawSlot : drag.rawSlots()) {
+                    slots.put(rawSlot, DRAGGED);
+                }
+                dispatch(new InventoryDragEvent(player.getOpenInventory(), null, DRAGGED, drag.single(), slots));
+            }
+            case TraceReader.UseStart use -> {
+                EquipmentSlot hand = use.offHand() ? EquipmentSlot.OFF_HAND : EquipmentSlot.HAND;
+                dispatch(new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR,
+                        player.getInventory().getItem(hand), null, BlockFace.SELF, hand));
+            }
+            case TraceReader.UseStop stop -> dispatch(new PlayerStopUsingItemEvent(player, SPYGLASS, stop.ticksHeld()));
+            case TraceReader.Quit quit -> {
+                meter.start();
+                player.disconnect();
+                meter.stop();
+                byNumber.remove(quit.player());
+            }
+            case TraceReader.Player joined -> throw new IllegalStateException("handled above");
+        }
+    }
+
+    private void join(TraceReader.Player joined) {
+        PlayerMock player = byId.get(joined.playerId());
+        if (player == null) {
+            player = new PlayerMock(fixture.server, "p" + everyone.size(), joined.playerId());
+            fixture.server.addPlayer(player);
+            player.setOp(true);
+            player.addAttachment(fixture.plugin, "szoom.bypass.ratelimit", true);
+            byId.put(joined.playerId(), player);
+            everyone.add(player);
+        } else if (!player.isOnline()) {
+            player.reconnect();
+        }
+        byNumber.put(joined.player(), player);
+    }
+
+    /**
+     * Puts the player's off hand and storage into the recorded state, keeping
+     * {@link #expected} in step with what was added or taken away.
+     */
+    private void rebuildOffHand(PlayerMock player, byte state) {
+        List<PlayerMock> one = List.of(player);
+        fixture.countItems(one).forEach((item, amount) -> expected.merge(item, -amount, Integer::sum));
+
+        PlayerInventory inventory = player.getInventory();
+        if (state == TraceRecorder.OFF_HAND_EMPTY) {
+            inventory.setItemInOffHand(null);
+        } else {
+            if (inventory.getItemInOffHand().getType().isAir()) {
+                ItemStack item = new ItemStack(Material.SHIELD);
+                ItemMeta meta = item.getItemMeta();
+                meta.displayName(Component.text(player.getName()));
+                item.setItemMeta(meta);
+                inventory.setItemInOffHand(item);
+            }
+            int size = inventory.getStorageContents().length;
+            if (state == TraceRecorder.OFF_HAND_ITEM_FULL_INVENTORY) {
+                for (int slot = 0; slot < size; slot++) {
+                    if (inventory.getItem(slot) == null) {
+                        inventory.setItem(slot, new ItemStack(Material.DIRT));
+                    }
+                }
+            } else if (inventory.firstEmpty() < 0) {
+                inventory.setItem(size - 1, null);
+            }
+        }
+
+        fixture.countItems(one).forEach((item, amount) -> expected.merge(item, amount, Integer::sum));
+    }
+
+    private void dispatch(Event event) {
+        meter.start();
+        pluginManager.callEvent(event);
+        meter.stop();
+    }
+
+    /**
+     * Counts spyglass sessions whose spyglass is gone from the off hand.
+     * A restore that lost track of its session shows up here first.
+     */
+    private void checkSessions() {
+        for (PlayerMock player : byNumber.values()) {
+            ZoomSession session = fixture.zoomManager.getSession(player);
+            if (session == null || session.stash() instanceof ZoomSession.ViewModifier) continue;
+            if (player.getInventory().getItemInOffHand().getType() != Material.SPYGLASS) {
+                violations++;
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
+import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.PluginDescriptionFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MockBukkit server with SimpleZoom enabled. The plugin's config.yml is
+ * written before it loads, with check-updates off, and bStats is turned off
+ * in its shared config, so nothing in a run goes out over the network.
+ */
+final class ZoomFixture {
+
+    /** Where the player's off-hand item goes when they zoom. */
+    enum Path {
+        EMPTY_HAND, FREE_SLOT, FULL_INVENTORY
+    }
+
+    final ServerMock server;
+    final SimpleZoom plugin;
+    final ZoomManager zoomManager;
+
+    private ZoomFixture() {
+        server = MockBukkit.mock();
+        try {
+            writeOfflineConfig();
+        } catch (IOException | InvalidDescriptionException e) {
+            MockBukkit.unmock();
+            throw new IllegalStateException("Could not write the benchmark config", e);
+        }
+        plugin = MockBukkit.load(SimpleZoom.class);
+        zoomManager = plugin.getZoomManager();
+        try {
+            requireOffline();
+        } catch (IllegalStateException e) {
+            MockBukkit.unmock();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the bundled config with check-updates off into the data folder
+     * MockBukkit is about to give the plugin, and bStats' config with
+     * enabled off into the folder next to it.
+     */
+    private void writeOfflineConfig() throws IOException, InvalidDescriptionException {
+        PluginDescriptionFile description;
+        String config;
+        try (InputStream yml = resource("plugin.yml"); InputStream defaults = resource("config.yml")) {
+            description = new PluginDescriptionFile(yml);
+            config = new String(defaults.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String offline = config.replace("check-updates: true", "check-updates: false");
+        if (offline.equals(config)) {
+            throw new IOException("check-updates: true not found in the bundled config.yml");
+        }
+        File plugins = server.getPluginManager().getParentTemporaryDirectory();
+        File dataFolder = new File(plugins, description.getName() + "-" + description.getVersion());
+        Files.createDirectories(dataFolder.toPath());
+        Files.writeString(new File(dataFolder, "config.yml").toPath(), offline);
+
+        YamlConfiguration bStats = new YamlConfiguration();
+        bStats.set("enabled", false);
+        bStats.save(new File(plugins, "bStats/config.yml"));
+    }
+
+    private static InputStream resource(String name) throws IOException {
+        InputStream in = SimpleZoom.class.getClassLoader().getResourceAsStream(name);
+        if (in == null) throw new IOException(name + " not on the classpath");
+        return in;
+    }
+
+    /**
+     * Throws unless the update check and bStats are both off, so numbers are
+     * never taken from a run that talks to the network. Checked on start and
+     * again by the runners before they report, in case a reload changed it.
+     */
+    void requireOffline() {
+        if (plugin.getSettings().checkUpdates()) {
+            throw new IllegalStateException("check-updates is on in " + plugin.getDataFolder());
+        }
+        File bStats = new File(plugin.getDataFolder().getParentFile(), "bStats/config.yml");
+        if (YamlConfiguration.loadConfiguration(bStats).getBoolean("enabled", true)) {
+            throw new IllegalStateException("bStats is enabled in " + bStats);
+        }
+    }
+
+    static ZoomFixture start() {
+        return new ZoomFixture();
+    }
+
+    void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Adds a player whose inventory is prepared for the given zoom path.
+     */
+    PlayerMock addPlayer(Path path) {
+        PlayerMock player = server.addPlayer();
+        PlayerInventory inventory = player.getInventory();
+        switch (path) {
+            case EMPTY_HAND -> {
+            }
+            case FREE_SLOT -> inventory.setItemInOffHand(new ItemStack(Material.SHIELD));
+            case FULL_INVENTORY -> {
+                inventory.setItemInOffHand(new ItemStack(Material.SHIELD));
+                int size = inventory.getStorageContents().length;
+                for (int i = 0; i < size; i++) {
+                    inventory.setItem(i, new ItemStack(Material.DIRT));
+                }
+            }
+        }
+        return player;
+    }
+
+    /**
+     * Ends every zoom the given players still have and runs one tick.
+     */
+    void endAllZooms(Iterable<? extends Player> players) {
+        for (Player player : players) {
+            zoomManager.removeSpyglass(player, ZoomEndReason.STOP_ZOOM);
+        }
+        server.getScheduler().performOneTick();
+    }
+
+    /**
+     * Every item in the given players' inventories and on the ground, by kind.
+     */
+    Map<ItemStack, Integer> countItems(Iterable<? extends Player> players) {
+        Map<ItemStack, Integer> counts = new HashMap<>();
+        for (Player player : players) {
+            for (ItemStack item : player.getInventory().getContents()) {
+                if (item != null && !item.getType().isAir()) {
+                    counts.merge(item.asOne(), item.getAmount(), Integer::sum);
+                }
+            }
+        }
+        for (World world : server.getWorlds()) {
+            for (Item dropped : world.getEntitiesByClass(Item.class)) {
+                ItemStack item = dropped.getItemStack();
+                counts.merge(item.asOne(), item.getAmount(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Items that went missing and items that appeared between two counts.
+     */
+    record ItemBalance(long lost, long duplicated) {
+
+        static ItemBalance of(Map<ItemStack, Integer> before, Map<ItemStack, Integer> after) {
+            long lost = 0;
+            long duplicated = 0;
+            Set<ItemStack> kinds = new HashSet<>(before.keySet());
+            kinds.addAll(after.keySet());
+            for (ItemStack kind : kinds) {
+                int difference = after.getOrDefault(kind, 0) - before.getOrDefault(kind, 0);
+                if (difference < 0) lost -= difference;
+                else duplicated += difference;
+            }
+            return new ItemBalance(lost, duplicated);
+        }
+
+        boolean ok() {
+            return lost == 0 && duplicated == 0;
+        }
+    }
+
+    /**
+     * True if every zoom on every path was restored as often as it was given.
+     */
+    boolean restoresMatchGives() {
+        ZoomMetrics metrics = zoomManager.getMetrics();
+        for (ZoomMetrics.Path path : ZoomMetrics.Path.values()) {
+            if (metrics.gives(path) != metrics.restores(path)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives and restores per path, as "empty 12/12 slot 3/3 ...".
+     */
+    String givesAndRestores() {
+        ZoomMetrics metrics = zoomManager.getMetrics();
+        StringBuilder summary = new StringBuilder();
+        for (ZoomMetrics.Path path : ZoomMetrics.Path.values()) {
+            if (!summary.isEmpty()) summary.append(' ');
+            summary.append(path.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(metrics.gives(path)).append('/').append(metrics.restores(path));
+        }
+        return summary.toString();
+    }
+
+    long totalGives() {
+        ZoomMetrics metrics = zoomManager.getMetrics();
+        long total = 0;
+        for (ZoomMetrics.Path path : ZoomMetrics.Path.values()) {
+            total += metrics.gives(path);
+        }
+        return total;
+    }
+
+    /**
+     * Raw slot of a storage slot in the player's own (crafting) inventory view.
+     */
+    static int rawSlot(int storageSlot) {
+        return storageSlot < 9 ? 36 + storageSlot : storageSlot;
+    }
+}
@@ -0,0 +1,82 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Giving and removing the spyglass, timed separately per off-hand path.
+ * Each invocation starts from the opposite state, set up untimed. Another
+ * player stays zooming throughout so listener (un)registration is not part
+ * of the measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoomManagerBenchmark {
+
+    @Param({"EMPTY_HAND", "FREE_SLOT", "FULL_INVENTORY"})
+    public ZoomFixture.Path path;
+
+    private ZoomFixture fixture;
+    private PlayerMock player;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = ZoomFixture.start();
+        fixture.zoomManager.giveSpyglass(fixture.addPlayer(ZoomFixture.Path.EMPTY_HAND));
+        player = fixture.addPlayer(path);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    /** The measured player is not zooming when the invocation starts. */
+    @State(Scope.Thread)
+    public static class NotZooming {
+
+        @Setup(Level.Invocation)
+        public void endZoom(ZoomManagerBenchmark benchmark) {
+            benchmark.fixture.zoomManager.removeSpyglass(benchmark.player, ZoomEndReason.STOP_ZOOM);
+        }
+    }
+
+    /** The measured player is zooming when the invocation starts. */
+    @State(Scope.Thread)
+    public static class Zooming {
+
+        @Setup(Level.Invocation)
+        public void startZoom(ZoomManagerBenchmark benchmark) {
+            benchmark.fixture.zoomManager.giveSpyglass(benchmark.player);
+        }
+    }
+
+    @Benchmark
+    public void giveSpyglass(NotZooming state) {
+        fixture.zoomManager.giveSpyglass(player);
+    }
+
+    @Benchmark
+    public void removeSpyglass(Zooming state) {
+        fixture.zoomManager.removeSpyglass(player, ZoomEndReason.STOP_ZOOM);
+    }
+}
@@ -0,0 +1,57 @@
+package com.simpleplugins.simplezoom.benchmarks;
+
+import com.simpleplugins.simplezoom.zoom.ZoomStopDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One ZoomStopDetector pass over N online players, all zooming. MockBukkit has
+ * no NMS, so the use-item probe answers "not using" and this measures the
+ * session walk and off-hand checks around it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoomStopDetectorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int players;
+
+    private ZoomFixture fixture;
+    private ZoomStopDetector detector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = ZoomFixture.start();
+        for (int i = 0; i < players; i++) {
+            fixture.zoomManager.giveSpyglass(fixture.addPlayer(ZoomFixture.Path.FREE_SLOT));
+        }
+        detector = new ZoomStopDetector(fixture.zoomManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public void detectorPass() {
+        detector.checkSessions();
+    }
+}
@@ -1,17 +1,24 @@
 package com.simpleplugins.simplezoom;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.Set;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.logging.Level;
+import java.util.zip.CRC32C;
 
 /**
  * Merges the plugin's default config (from the jar) with the existing config.yml
@@ -19,131 +26,407 @@ import java.util.logging.Level;
  * are never overwritten. Only writes to disk when at least one key was added,
  * to minimize file writes.
  * <p>
- * Supports nested sections and lists. Compatible with Bukkit/Spigot
- * FileConfiguration API. Safe to call on every load and reload.
+ * The bundled defaults are parsed once per plugin version. After a merge the
+ * user file's size, modification time and CRC32C are remembered (in memory and
+ * in {@code .config-fingerprint}), and a file that still matches is not parsed
+ * again. Missing keys are inserted as text copied from the bundled file, with
+ * their comments, next to their neighbours; the rest of the user's file is left
+ * byte for byte. Only if that patch cannot be applied cleanly is the whole file
+ * re-serialized, which loses comments.
+ * <p>
+ * Supports nested sections and lists. Safe to call on every load and reload,
+ * from any thread; it does blocking file I/O, so keep it off the server
+ * thread. It never touches {@link JavaPlugin#getConfig()}: when it returns
+ * true the caller reloads that on the server thread.
  */
 public final class ConfigUpdater {
 
+    private static final String FINGERPRINT_FILE = ".config-fingerprint";
+
+    private static volatile Defaults defaults;
+    private static volatile Fingerprint lastMerge;
+
     private ConfigUpdater() {
     }
 
+    /** Bundled config.yml, parsed and split into lines */
+    private record Defaults(String version, FileConfiguration config, List<String> lines) {
+    }
+
+    /** State of the user file right after the last successful merge */
+    private record Fingerprint(String version, long size, long modified, long hash) {
+
+        static Fingerprint of(String version, BasicFileAttributes attributes, byte[] content) {
+            return new Fingerprint(version, attributes.size(), attributes.lastModifiedTime().toMillis(), crc(content));
+        }
+
+        static Fingerprint parse(String line) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length != 4) return null;
+            try {
+                return new Fingerprint(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        String format() {
+            return version + " " + size + " " + modified + " " + hash;
+        }
+    }
+
     /**
-     * Loads the default config from the plugin jar, merges it with the current
-     * config file (adding only missing keys), and optionally saves and
-     * reloads. Existing user values are never changed.
+     * Adds the bundled defaults missing from config.yml, unless the file is
+     * unchanged since the last merge. A file that is not valid YAML is left
+     * alone.
      *
      * @param plugin the plugin
      * @return true if config.yml was updated (new keys added and file written)
      */
     public static boolean mergeWithDefaults(JavaPlugin plugin) {
-        File configFile = new File(plugin.getDataFolder(), "config.yml");
-        if (!configFile.exists()) {
+        Path configFile = plugin.getDataFolder().toPath().resolve("config.yml");
+        if (!Files.exists(configFile)) {
             return false;
         }
 
-        FileConfiguration defaultConfig = loadDefaultFromJar(plugin);
-        if (defaultConfig == null) {
+        Defaults bundled = loadDefaults(plugin);
+        if (bundled == null) {
             plugin.getLogger().warning("Could not load default config from jar; skipping merge.");
             return false;
         }
 
-        FileConfiguration currentConfig = YamlConfiguration.loadConfiguration(configFile);
-        FileConfiguration merged = copySection(currentConfig.getRoot());
-        boolean modified = addMissingDefaults(merged, defaultConfig, currentConfig, "");
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(configFile, BasicFileAttributes.class);
+            Fingerprint previous = lastMerge(configFile);
+            byte[] content = null;
+            if (previous != null && previous.version.equals(bundled.version)
+                    && previous.size == attributes.size()
+                    && previous.modified == attributes.lastModifiedTime().toMillis()) {
+                content = Files.readAllBytes(configFile);
+                if (crc(content) == previous.hash) {
+                    return false;
+                }
+            }
+            if (content == null) {
+                content = Files.readAllBytes(configFile);
+            }
 
-        if (!modified) {
-            return false;
-        }
+            String text = new String(content, StandardCharsets.UTF_8);
+            YamlConfiguration current = new YamlConfiguration();
+            current.loadFromString(text);
 
-        try {
-            merged.save(configFile);
-            plugin.reloadConfig();
+            List<String> missing = new ArrayList<>();
+            collectMissing(bundled.config, current, "", missing);
+            if (missing.isEmpty()) {
+                remember(configFile, Fingerprint.of(bundled.version, attributes, content));
+                return false;
+            }
+
+            String merged = patch(text, bundled, missing);
+            if (merged == null || !isCompleteMerge(merged, current, missing)) {
+                plugin.getLogger().info("Could not insert new config keys in place; rewriting config.yml without comments.");
+                merged = rewrite(current, bundled.config, missing);
+            }
+
+            byte[] bytes = merged.getBytes(StandardCharsets.UTF_8);
+            Path tmp = configFile.resolveSibling("config.yml.tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, configFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            remember(configFile, Fingerprint.of(bundled.version,
+                    Files.readAttributes(configFile, BasicFileAttributes.class), bytes));
+            plugin.getLogger().info("Added " + missing.size() + " new setting(s) to config.yml: " + String.join(", ", missing));
             return true;
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to save merged config", e);
+        } catch (InvalidConfigurationException e) {
+            plugin.getLogger().warning("config.yml is not valid YAML; new settings were not added: " + e.getMessage());
+            return false;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to merge config.yml with defaults", e);
             return false;
         }
     }
 
     /**
-     * Recursively adds keys from default into merged where they are missing in
-     * current. Merged is built from current first (all user keys preserved).
-     * Returns true if any key was added from default.
+     * Collects the paths of default keys absent from current. A missing
+     * section is reported once, as a whole; a user value where the default
+     * has a section is left alone.
      */
-    private static boolean addMissingDefaults(
-            ConfigurationSection merged,
-            ConfigurationSection defaultSection,
-            ConfigurationSection currentSection,
-            String pathPrefix
-    ) {
-        boolean modified = false;
-        Set<String> keys = defaultSection.getKeys(false);
-
-        for (String key : keys) {
+    private static void collectMissing(ConfigurationSection defaultSection, ConfigurationSection currentSection,
+                                       String pathPrefix, List<String> missing) {
+        for (String key : defaultSection.getKeys(false)) {
             String path = pathPrefix.isEmpty() ? key : pathPrefix + "." + key;
+            if (!currentSection.contains(key)) {
+                missing.add(path);
+            } else if (defaultSection.isConfigurationSection(key) && currentSection.isConfigurationSection(key)) {
+                collectMissing(defaultSection.getConfigurationSection(key),
+                        currentSection.getConfigurationSection(key), path, missing);
+            }
+        }
+    }
 
-            if (defaultSection.isConfigurationSection(key)) {
-                ConfigurationSection defaultChild = defaultSection.getConfigurationSection(key);
-                ConfigurationSection currentChild = currentSection.getConfigurationSection(key);
-                ConfigurationSection mergedChild = merged.getConfigurationSection(key);
-                if (mergedChild == null) {
-                    mergedChild = merged.createSection(key);
+    /**
+     * Inserts the bundled text of every missing key into the user's text:
+     * after the nearest earlier sibling the user has, else before the nearest
+     * later one, else at the end of the parent section.
+     *
+     * @return the patched text, or null if a key could not be located
+     */
+    private static String patch(String text, Defaults bundled, List<String> missing) {
+        String newline = text.contains("\r\n") ? "\r\n" : "\n";
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\\R", -1)));
+        boolean trailingNewline = lines.size() > 1 && lines.get(lines.size() - 1).isEmpty();
+        if (trailingNewline) {
+            lines.remove(lines.size() - 1);
+        }
+
+        for (String path : missing) {
+            int dot = path.lastIndexOf('.');
+            String parentPath = dot < 0 ? "" : path.substring(0, dot);
+            String key = path.substring(dot + 1);
+
+            Block source = Block.find(bundled.lines, path);
+            if (source == null) return null;
+            int sourceIndent = indent(bundled.lines.get(source.start));
+
+            int insertAt = -1;
+            int targetIndent = -1;
+            ConfigurationSection defaultParent = parentPath.isEmpty()
+                    ? bundled.config : bundled.config.getConfigurationSection(parentPath);
+            List<String> siblings = new ArrayList<>(defaultParent.getKeys(false));
+            int position = siblings.indexOf(key);
+            String siblingPrefix = parentPath.isEmpty() ? "" : parentPath + ".";
+            for (int i = position - 1; i >= 0 && insertAt < 0; i--) {
+                Block sibling = Block.find(lines, siblingPrefix + siblings.get(i));
+                if (sibling != null) {
+                    insertAt = sibling.end;
+                    targetIndent = indent(lines.get(sibling.start));
                 }
-                if (currentChild == null) {
-                    currentChild = emptySection();
+            }
+            for (int i = position + 1; i < siblings.size() && insertAt < 0; i++) {
+                Block sibling = Block.find(lines, siblingPrefix + siblings.get(i));
+                if (sibling != null) {
+                    insertAt = sibling.commentStart;
+                    targetIndent = indent(lines.get(sibling.start));
                 }
-                if (addMissingDefaults(mergedChild, defaultChild, currentChild, "")) {
-                    modified = true;
+            }
+            if (insertAt < 0) {
+                if (parentPath.isEmpty()) {
+                    insertAt = lines.size();
+                    targetIndent = 0;
+                } else {
+                    Block parent = Block.find(lines, parentPath);
+                    if (parent == null) return null;
+                    Block defaultParentBlock = Block.find(bundled.lines, parentPath);
+                    if (defaultParentBlock == null) return null;
+                    insertAt = parent.end;
+                    targetIndent = indent(lines.get(parent.start))
+                            + sourceIndent - indent(bundled.lines.get(defaultParentBlock.start));
                 }
-                continue;
             }
 
-            if (!currentSection.contains(key)) {
-                merged.set(key, defaultSection.get(key));
-                modified = true;
+            List<String> block = new ArrayList<>();
+            for (String line : bundled.lines.subList(source.commentStart, source.end)) {
+                block.add(reindent(line, targetIndent - sourceIndent));
             }
+            if (targetIndent == 0) {
+                if (insertAt < lines.size() && !lines.get(insertAt).isBlank()) {
+                    block.add("");
+                }
+                if (insertAt > 0 && !lines.get(insertAt - 1).isBlank()) {
+                    block.add(0, "");
+                }
+            }
+            lines.addAll(insertAt, block);
         }
 
-        return modified;
+        String patched = String.join(newline, lines);
+        return trailingNewline ? patched + newline : patched;
+    }
+
+    /**
+     * The patch must parse, contain every missing key and leave every user
+     * value as it was; otherwise the caller falls back to a full rewrite.
+     */
+    private static boolean isCompleteMerge(String merged, ConfigurationSection current, List<String> missing) {
+        YamlConfiguration check = new YamlConfiguration();
+        try {
+            check.loadFromString(merged);
+        } catch (InvalidConfigurationException e) {
+            return false;
+        }
+        for (String path : missing) {
+            if (!check.contains(path)) return false;
+        }
+        for (String path : current.getKeys(true)) {
+            if (current.isConfigurationSection(path)) continue;
+            if (!Objects.equals(current.get(path), check.get(path))) return false;
+        }
+        return true;
     }
 
     /**
-     * Deep-copies a configuration section so we can modify the copy without
-     * altering the original. Used to clone current config as the base for merge.
+     * Full re-serialization of the user's values plus the missing defaults.
+     * Loses comments; only used when the text patch fails.
      */
-    private static FileConfiguration copySection(ConfigurationSection section) {
-        FileConfiguration out = new YamlConfiguration();
-        if (section == null) {
-            return out;
+    private static String rewrite(ConfigurationSection current, ConfigurationSection defaultConfig, List<String> missing) {
+        YamlConfiguration out = new YamlConfiguration();
+        copyValues(current, out, "");
+        for (String path : missing) {
+            if (defaultConfig.isConfigurationSection(path)) {
+                copyValues(defaultConfig.getConfigurationSection(path), out, path + ".");
+            } else {
+                out.set(path, defaultConfig.get(path));
+            }
         }
-        for (String path : section.getKeys(true)) {
-            if (section.isConfigurationSection(path)) {
-                continue;
+        return out.saveToString();
+    }
+
+    private static void copyValues(ConfigurationSection from, ConfigurationSection to, String pathPrefix) {
+        for (String key : from.getKeys(false)) {
+            if (from.isConfigurationSection(key)) {
+                copyValues(from.getConfigurationSection(key), to, pathPrefix + key + ".");
+            } else {
+                to.set(pathPrefix + key, from.get(key));
             }
-            Object value = section.get(path);
-            if (value instanceof ConfigurationSection) {
-                continue;
+        }
+    }
+
+    /**
+     * A key's lines in a block-style YAML text: leading comments from
+     * {@code commentStart}, the key line at {@code start}, and everything
+     * indented deeper up to {@code end} (exclusive, trailing blanks excluded).
+     */
+    private record Block(int commentStart, int start, int end) {
+
+        static Block find(List<String> lines, String path) {
+            int from = 0;
+            int to = lines.size();
+            int parentIndent = -1;
+            int start = -1;
+            int end = -1;
+            for (String segment : path.split("\\.")) {
+                start = -1;
+                int childIndent = -1;
+                for (int i = from; i < to; i++) {
+                    String line = lines.get(i);
+                    if (!isContent(line)) continue;
+                    int indent = indent(line);
+                    if (indent <= parentIndent) continue;
+                    if (childIndent < 0) childIndent = indent;
+                    if (indent == childIndent && segment.equals(keyOf(line))) {
+                        start = i;
+                        break;
+                    }
+                }
+                if (start < 0) return null;
+                end = endOf(lines, start, to);
+                from = start + 1;
+                to = end;
+                parentIndent = childIndent;
             }
-            out.set(path, value);
+            int commentStart = start;
+            while (commentStart > 0 && lines.get(commentStart - 1).trim().startsWith("#")) {
+                commentStart--;
+            }
+            return new Block(commentStart, start, end);
+        }
+
+        private static int endOf(List<String> lines, int start, int limit) {
+            int indent = indent(lines.get(start));
+            int last = start;
+            for (int i = start + 1; i < limit; i++) {
+                String line = lines.get(i);
+                if (!isContent(line)) continue;
+                if (indent(line) <= indent) break;
+                last = i;
+            }
+            return last + 1;
+        }
+    }
+
+    private static boolean isContent(String line) {
+        String trimmed = line.trim();
+        return !trimmed.isEmpty() && !trimmed.startsWith("#");
+    }
+
+    private static int indent(String line) {
+        int i = 0;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Mapping key of a content line, unquoted, or null for list items and scalars.
+     */
+    private static String keyOf(String line) {
+        String trimmed = line.trim();
+        if (trimmed.startsWith("- ")) return null;
+        char first = trimmed.charAt(0);
+        if (first == '"' || first == '\'') {
+            int close = trimmed.indexOf(first, 1);
+            if (close < 0 || close + 1 >= trimmed.length() || trimmed.charAt(close + 1) != ':') return null;
+            return trimmed.substring(1, close);
         }
-        return out;
+        int colon = trimmed.indexOf(": ");
+        if (colon < 0) {
+            colon = trimmed.endsWith(":") ? trimmed.length() - 1 : -1;
+        }
+        return colon < 0 ? null : trimmed.substring(0, colon).trim();
     }
 
-    private static ConfigurationSection emptySection() {
-        return new YamlConfiguration();
+    private static String reindent(String line, int delta) {
+        if (line.isBlank()) return "";
+        if (delta >= 0) return " ".repeat(delta) + line;
+        return line.substring(Math.min(-delta, indent(line)));
+    }
+
+    private static Fingerprint lastMerge(Path configFile) {
+        Fingerprint cached = lastMerge;
+        if (cached != null) return cached;
+        Path file = configFile.resolveSibling(FINGERPRINT_FILE);
+        try {
+            return Files.exists(file) ? Fingerprint.parse(Files.readString(file, StandardCharsets.UTF_8)) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void remember(Path configFile, Fingerprint fingerprint) {
+        lastMerge = fingerprint;
+        try {
+            Files.writeString(configFile.resolveSibling(FINGERPRINT_FILE), fingerprint.format(), StandardCharsets.UTF_8);
+        } catch (IOException ignored) {
+            // only costs one extra parse on the next start
+        }
+    }
+
+    private static long crc(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
     }
 
     /**
-     * Loads the default config from the plugin's config.yml resource in the jar.
+     * Loads the default config from the plugin's config.yml resource in the
+     * jar, once per plugin version.
      */
-    private static FileConfiguration loadDefaultFromJar(JavaPlugin plugin) {
+    private static Defaults loadDefaults(JavaPlugin plugin) {
+        String version = plugin.getDescription().getVersion();
+        Defaults cached = defaults;
+        if (cached != null && cached.version.equals(version)) {
+            return cached;
+        }
         try (InputStream in = plugin.getResource("config.yml")) {
             if (in == null) {
                 return null;
             }
-            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
-                return YamlConfiguration.loadConfiguration(reader);
-            }
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            YamlConfiguration config = new YamlConfiguration();
+            config.loadFromString(text);
+            cached = new Defaults(version, config, List.of(text.split("\\R", -1)));
+            defaults = cached;
+            return cached;
         } catch (Exception e) {
             plugin.getLogger().log(Level.WARNING, "Failed to load default config from jar", e);
             return null;
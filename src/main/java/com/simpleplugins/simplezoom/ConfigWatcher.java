@@ -0,0 +1,108 @@
+package com.simpleplugins.simplezoom;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Watches the data folder and calls back when config.yml changes on disk.
+ * <p>
+ * Editors save in bursts (truncate, write, rename, touch), so after the first
+ * event the watcher keeps draining until the folder has been quiet for
+ * {@link #DEBOUNCE_MILLIS} and then fires once. The callback runs on the
+ * watcher thread; it is expected to hand off the actual reload.
+ */
+final class ConfigWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 500;
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
+    private final Path folder;
+    private final Path fileName;
+    private final Runnable onChange;
+    private final Logger logger;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    ConfigWatcher(Path file, Runnable onChange, Logger logger) {
+        this.folder = file.getParent();
+        this.fileName = file.getFileName();
+        this.onChange = onChange;
+        this.logger = logger;
+    }
+
+    void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = Thread.ofPlatform().daemon().name("SimpleZoom-ConfigWatcher").start(this::watchLoop);
+    }
+
+    /**
+     * Closes the watch service and waits briefly for the watcher thread to
+     * leave, interrupting it if it does not.
+     */
+    void stop() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // the thread exits on the closed service either way
+        }
+        watchService = null;
+        Thread watcher = thread;
+        thread = null;
+        if (watcher == null || watcher == Thread.currentThread()) return;
+        try {
+            watcher.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (watcher.isAlive()) {
+            watcher.interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                if (!drain(service.take())) continue;
+                WatchKey more;
+                while ((more = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    drain(more);
+                }
+                onChange.run();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warning("config.yml watcher stopped: " + e);
+        }
+    }
+
+    /**
+     * Consumes the key's events and re-arms it.
+     *
+     * @return true if any event was about config.yml
+     */
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+}
@@ -1,16 +1,50 @@
 package com.simpleplugins.simplezoom;
 
+import com.simpleplugins.simplezoom.api.SimpleZoomService;
 import com.simpleplugins.simplezoom.command.ZoomCommand;
-import com.simpleplugins.simplezoom.listener.InventoryGuardListener;
-import com.simpleplugins.simplezoom.listener.PlayerItemHeldListener;
-import com.simpleplugins.simplezoom.listener.PlayerMoveListener;
+import com.simpleplugins.simplezoom.command.ZoomRateLimiter;
+import com.simpleplugins.simplezoom.listener.PlayerJoinListener;
+import com.simpleplugins.simplezoom.listener.PlayerPreLoginListener;
 import com.simpleplugins.simplezoom.listener.PlayerQuitListener;
+import com.simpleplugins.simplezoom.listener.TraceListener;
+import com.simpleplugins.simplezoom.listener.TriggerListenerRegistry;
+import com.simpleplugins.simplezoom.message.MessageCatalog;
+import com.simpleplugins.simplezoom.metrics.PrometheusExporter;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
+import com.simpleplugins.simplezoom.nms.NmsBridge;
+import com.simpleplugins.simplezoom.scheduler.IoExecutor;
+import com.simpleplugins.simplezoom.scheduler.ZoomScheduler;
+import com.simpleplugins.simplezoom.storage.PreferenceStore;
+import com.simpleplugins.simplezoom.storage.RestoreJournal;
+import com.simpleplugins.simplezoom.storage.SessionHandoff;
+import com.simpleplugins.simplezoom.trace.TraceRecorder;
 import com.simpleplugins.simplezoom.update.UpdateChecker;
 import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomService;
 import com.simpleplugins.simplezoom.zoom.ZoomStopDetector;
 import org.bstats.bukkit.Metrics;
+import org.bstats.charts.SimplePie;
+import org.bstats.charts.SingleLineChart;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
 /**
  * Simple Zoom - A lightweight plugin that allows players to zoom.
  * Part of the SimplePlugins family.
@@ -18,47 +52,392 @@ import org.bukkit.plugin.java.JavaPlugin;
  */
 public final class SimpleZoom extends JavaPlugin {
 
+    private volatile ZoomSettings settings;
+    private volatile MessageCatalog messages;
+    private ZoomScheduler scheduler;
+    private IoExecutor io;
+    private RestoreJournal restoreJournal;
+    private PreferenceStore preferences;
+    private ZoomScheduler.Task preferenceFlushTask;
     private ZoomManager zoomManager;
-    private ZoomStopDetector zoomStopDetector;
+    private ZoomScheduler.Task zoomStopDetector;
+    private TriggerListenerRegistry triggerListeners;
+    private ZoomMetrics zoomMetrics;
+    private ZoomScheduler.Task prometheusTask;
+    private ConfigWatcher configWatcher;
+    private UpdateChecker updateChecker;
+    private TraceRecorder traceRecorder;
+    private TraceListener traceListener;
+    private boolean useItemEvents;
+    private final Object reloadLock = new Object();
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
-        ConfigUpdater.mergeWithDefaults(this);
-
-        if (!validateRemovalOptions()) {
+        // keys missing from config.yml fall back to the bundled defaults until the merge below lands
+        settings = ZoomSettings.from(getConfig());
+        if (!settings.hasRemovalTrigger()) {
             getLogger().severe("At least one removal option must be enabled (remove-on-move, remove-on-hotbar-switch, remove-on-stop-zoom). Disabling plugin.");
             getServer().getPluginManager().disablePlugin(this);
             return;
         }
+        messages = MessageCatalog.load(settings, langFolder(), getLogger());
+
+        NmsBridge.init(getLogger());
+        scheduler = ZoomScheduler.create(this);
+        io = new IoExecutor(this, scheduler);
+        io.supply(this::mergeConfig, merged -> {
+            if (merged) reloadConfig();
+        });
+        useItemEvents = hasUseItemEvents();
 
+        zoomMetrics = new ZoomMetrics();
+        zoomMetrics.setEnabled(settings.statsEnabled());
         int pluginId = 29592;
         Metrics metrics = new Metrics(this, pluginId);
+        metrics.addCustomChart(new SimplePie("stop_zoom_detection", () -> useItemEvents ? "events" : "polling"));
+        metrics.addCustomChart(new SingleLineChart("zooms_started", zoomMetrics::drainZoomsForBstats));
+
+        restoreJournal = new RestoreJournal(getDataFolder().toPath().resolve("pending-restores.journal"), getLogger());
+        try {
+            int pending = restoreJournal.open();
+            if (pending > 0) {
+                getLogger().info(pending + " off-hand item(s) from an interrupted zoom will be restored when their players join.");
+            }
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Could not open restore journal; off-hand items held during a crash cannot be recovered", e);
+        }
 
-        zoomManager = new ZoomManager(this);
-        getCommand("zoom").setExecutor(new ZoomCommand(this, zoomManager));
-        getServer().getPluginManager().registerEvents(new PlayerMoveListener(this, zoomManager), this);
-        getServer().getPluginManager().registerEvents(new PlayerItemHeldListener(this, zoomManager), this);
-        getServer().getPluginManager().registerEvents(new PlayerQuitListener(zoomManager), this);
-        getServer().getPluginManager().registerEvents(new InventoryGuardListener(zoomManager), this);
+        preferences = new PreferenceStore(getDataFolder().toPath().resolve("preferences.dat"), io::execute, getLogger());
+        try {
+            preferences.open();
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "Could not open zoom preferences; everyone uses the server defaults", e);
+        }
+        Collection<? extends Player> online = List.copyOf(getServer().getOnlinePlayers());
+        if (!online.isEmpty()) {
+            online.forEach(player -> preferences.joined(player.getUniqueId()));
+            io.execute(() -> online.forEach(player -> preferences.load(player.getUniqueId())));
+        }
+        preferenceFlushTask = io.every(preferences::flush, 100L, 100L);
+
+        zoomManager = new ZoomManager(this, restoreJournal, zoomMetrics, preferences);
+        ZoomRateLimiter rateLimiter = new ZoomRateLimiter(this);
+        getCommand("zoom").setExecutor(new ZoomCommand(this, zoomManager, rateLimiter, preferences));
+        getServer().getPluginManager().registerEvents(new PlayerPreLoginListener(preferences), this);
+        getServer().getPluginManager().registerEvents(new PlayerJoinListener(zoomManager, preferences), this);
+        getServer().getPluginManager().registerEvents(new PlayerQuitListener(zoomManager, rateLimiter, preferences), this);
+
+        triggerListeners = new TriggerListenerRegistry(this, zoomManager, useItemEvents);
+        zoomManager.setActivityCallback(triggerListeners::refresh);
+        try {
+            int adopted = zoomManager.adopt(SessionHandoff.take(handoffFile()));
+            if (adopted > 0) {
+                getLogger().info("Took over " + adopted + " zoom session(s) from the previous plugin instance.");
+            }
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "Could not read session handoff; affected players get their items back from the journal", e);
+        }
+        for (Player player : getServer().getOnlinePlayers()) {
+            scheduler.runForPlayer(player, () -> zoomManager.restorePending(player));
+        }
+        if (!useItemEvents) {
+            getLogger().info("Paper use-item events not available; polling for stop-zoom every 2 ticks.");
+            zoomStopDetector = scheduler.runGlobalTimer(new ZoomStopDetector(zoomManager), 2L, 2L);
+        }
 
-        zoomStopDetector = new ZoomStopDetector(this, zoomManager);
-        zoomStopDetector.runTaskTimer(this, 2L, 2L);
+        getServer().getServicesManager().register(SimpleZoomService.class, new ZoomService(zoomManager), this,
+                ServicePriority.Normal);
 
-        UpdateChecker.check(this);
+        schedulePrometheusExport();
+        updateConfigWatcher();
+        updateTrace();
+        updateChecker = new UpdateChecker(this);
+        updateChecker.start();
     }
 
     @Override
     public void onDisable() {
+        getServer().getServicesManager().unregisterAll(this);
+        if (updateChecker != null) {
+            updateChecker.stop();
+        }
+        if (configWatcher != null) {
+            configWatcher.stop();
+            configWatcher = null;
+        }
         if (zoomStopDetector != null) {
             zoomStopDetector.cancel();
         }
+        stopTrace();
+        if (prometheusTask != null) {
+            prometheusTask.cancel();
+            prometheusTask = null;
+        }
+        if (zoomManager != null) {
+            endSessions();
+        }
+        if (preferenceFlushTask != null) {
+            preferenceFlushTask.cancel();
+        }
+        if (io != null) {
+            io.close(2, TimeUnit.SECONDS);
+        }
+        if (restoreJournal != null) {
+            restoreJournal.close(2, TimeUnit.SECONDS);
+        }
+        if (preferences != null) {
+            preferences.close();
+        }
+    }
+
+    /**
+     * On a real shutdown every zooming player gets their item back in one pass.
+     * On a plugin reload or hot swap the sessions are handed to the next
+     * instance instead, and inventories are left as they are.
+     */
+    private void endSessions() {
+        if (getServer().isStopping()) {
+            int drained = zoomManager.drain();
+            if (drained > 0) {
+                getLogger().info("Restored off-hand items of " + drained + " zooming player(s).");
+            }
+            return;
+        }
+        Map<UUID, RestoreJournal.Entry> snapshot = zoomManager.snapshot();
+        if (snapshot.isEmpty()) return;
+        try {
+            SessionHandoff.write(handoffFile(), snapshot);
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "Could not write session handoff; restoring items now instead", e);
+            zoomManager.drain();
+        }
+    }
+
+    private Path handoffFile() {
+        return getDataFolder().toPath().resolve("session-handoff.dat");
+    }
+
+    /**
+     * (Re)starts the metrics.prom writer for the current interval, or stops it when 0.
+     */
+    private void schedulePrometheusExport() {
+        if (prometheusTask != null) {
+            prometheusTask.cancel();
+            prometheusTask = null;
+        }
+        int interval = settings.prometheusIntervalSeconds();
+        if (interval <= 0) return;
+        PrometheusExporter exporter = new PrometheusExporter(zoomMetrics, zoomManager::getSessionCount,
+                getDataFolder().toPath().resolve("metrics.prom"));
+        long ticks = interval * 20L;
+        prometheusTask = io.every(() -> {
+            try {
+                exporter.write();
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING, "Could not write metrics.prom", e);
+            }
+        }, ticks, ticks);
+    }
+
+    /**
+     * True if the server fires Paper's PlayerStopUsingItemEvent. Checked by name
+     * so the listener class is never instantiated on servers without it.
+     */
+    private static boolean hasUseItemEvents() {
+        try {
+            Class.forName("io.papermc.paper.event.player.PlayerStopUsingItemEvent");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Scheduler matching the server's threading model (Folia regions or the main thread).
+     */
+    public ZoomScheduler getZoomScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Where blocking work goes: network, config and data files.
+     */
+    public IoExecutor getIoExecutor() {
+        return io;
+    }
+
+    public ZoomManager getZoomManager() {
+        return zoomManager;
+    }
+
+    /**
+     * Current settings snapshot. Always use this instead of {@link #getConfig()}
+     * at runtime; it is replaced as a whole on reload.
+     */
+    public ZoomSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Parsed messages for the current settings; replaced together with them on reload.
+     */
+    public MessageCatalog getMessages() {
+        return messages;
+    }
+
+    private Path langFolder() {
+        return getDataFolder().toPath().resolve("lang");
+    }
+
+    public ZoomMetrics getZoomMetrics() {
+        return zoomMetrics;
+    }
+
+    /**
+     * Outcome of a reload, reported to whoever asked for it.
+     */
+    public enum ReloadResult {
+        APPLIED,
+        /** Parsed, but no removal option is enabled */
+        INVALID,
+        /** config.yml could not be read or is not valid YAML */
+        UNREADABLE
+    }
+
+    /**
+     * Merges new default keys and re-reads config.yml on the I/O executor, then
+     * publishes the new settings on the global thread on the next tick, only if
+     * they pass validation. On failure the previous snapshot stays active
+     * untouched. The callback runs on the global thread.
+     */
+    public void reloadSettings(Consumer<ReloadResult> callback) {
+        io.supply(this::readSettings, loaded -> callback.accept(applySettings(loaded)));
+    }
+
+    /**
+     * Result of the disk half of a reload
+     *
+     * @param merged config.yml was rewritten with new default keys
+     */
+    private record Loaded(ZoomSettings settings, MessageCatalog messages, boolean merged) {
+    }
+
+    /**
+     * Adds new default keys to config.yml. Blocking; runs on the I/O
+     * executor, serialized with reloads.
+     */
+    private boolean mergeConfig() {
+        synchronized (reloadLock) {
+            return ConfigUpdater.mergeWithDefaults(this);
+        }
+    }
+
+    /**
+     * Disk half of a reload, including parsing every message. Serialized so a
+     * command and the file watcher never merge into config.yml at the same time.
+     *
+     * @return the parsed settings and messages, or null if config.yml could not be parsed
+     */
+    private Loaded readSettings() {
+        synchronized (reloadLock) {
+            boolean merged = ConfigUpdater.mergeWithDefaults(this);
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                config.load(new File(getDataFolder(), "config.yml"));
+            } catch (IOException | InvalidConfigurationException e) {
+                getLogger().warning("Reload failed, keeping previous configuration: " + e.getMessage());
+                return null;
+            }
+            ZoomSettings parsed = ZoomSettings.from(config);
+            return new Loaded(parsed, MessageCatalog.load(parsed, langFolder(), getLogger()), merged);
+        }
     }
 
-    private boolean validateRemovalOptions() {
-        boolean move = getConfig().getBoolean("remove-on-move", true);
-        boolean hotbar = getConfig().getBoolean("remove-on-hotbar-switch", true);
-        boolean stopZoom = getConfig().getBoolean("remove-on-stop-zoom", false);
-        return move || hotbar || stopZoom;
+    private ReloadResult applySettings(Loaded result) {
+        if (result == null) {
+            return ReloadResult.UNREADABLE;
+        }
+        if (result.merged()) {
+            reloadConfig();
+        }
+        ZoomSettings loaded = result.settings();
+        if (!loaded.hasRemovalTrigger()) {
+            getLogger().warning("Reload rejected: at least one removal option must be enabled. Keeping previous configuration.");
+            return ReloadResult.INVALID;
+        }
+        boolean exportChanged = loaded.prometheusIntervalSeconds() != settings.prometheusIntervalSeconds();
+        settings = loaded;
+        messages = result.messages();
+        zoomMetrics.setEnabled(loaded.statsEnabled());
+        if (exportChanged) {
+            schedulePrometheusExport();
+        }
+        if (triggerListeners != null) {
+            triggerListeners.refresh();
+        }
+        updateConfigWatcher();
+        updateTrace();
+        if (updateChecker != null) {
+            updateChecker.reload();
+        }
+        return ReloadResult.APPLIED;
+    }
+
+    /**
+     * Starts or stops the event trace to match the trace-events setting. Each
+     * start writes a new file in the traces folder.
+     */
+    private void updateTrace() {
+        boolean wanted = settings.traceEvents() && useItemEvents;
+        if (wanted == (traceRecorder != null)) return;
+        if (!wanted) {
+            stopTrace();
+            return;
+        }
+        String name = "trace-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".sztrace";
+        TraceRecorder recorder = new TraceRecorder(getDataFolder().toPath().resolve("traces").resolve(name), getLogger());
+        try {
+            recorder.start(getServer().getCurrentTick());
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "Could not start event trace", e);
+            return;
+        }
+        traceRecorder = recorder;
+        traceListener = new TraceListener(getServer(), getCommand("zoom"), recorder);
+        getServer().getPluginManager().registerEvents(traceListener, this);
+        getLogger().info("Recording zoom events to traces/" + name);
+    }
+
+    private void stopTrace() {
+        if (traceRecorder == null) return;
+        HandlerList.unregisterAll(traceListener);
+        traceRecorder.close(2, TimeUnit.SECONDS);
+        traceRecorder = null;
+        traceListener = null;
+    }
+
+    /**
+     * Starts or stops watching config.yml to match the auto-reload setting.
+     */
+    private void updateConfigWatcher() {
+        if (settings.autoReload() == (configWatcher != null)) return;
+        if (configWatcher != null) {
+            configWatcher.stop();
+            configWatcher = null;
+            return;
+        }
+        ConfigWatcher watcher = new ConfigWatcher(getDataFolder().toPath().resolve("config.yml"),
+                () -> reloadSettings(result -> {
+                    if (result == ReloadResult.APPLIED) {
+                        getLogger().info("config.yml changed on disk; configuration reloaded.");
+                    }
+                }), getLogger());
+        try {
+            watcher.start();
+            configWatcher = watcher;
+        } catch (IOException e) {
+            getLogger().log(Level.WARNING, "Could not watch config.yml; auto-reload is off", e);
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.simpleplugins.simplezoom;
+
+import com.simpleplugins.simplezoom.zoom.ZoomMode;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of config.yml. Built once on enable and on every reload,
+ * then published by {@link SimpleZoom#getSettings()} so listeners and tasks
+ * read plain fields instead of walking the configuration tree per event.
+ */
+public record ZoomSettings(
+        String prefix,
+        boolean checkUpdates,
+        int updateCheckIntervalHours,
+        String updateApiUrl,
+        boolean autoReload,
+        boolean removeOnMove,
+        boolean moveSampling,
+        int moveCheckInterval,
+        double moveDistance,
+        boolean removeOnHotbarSwitch,
+        boolean removeOnStopZoom,
+        int maxZoomDurationSeconds,
+        int idleTimeoutSeconds,
+        ZoomMode zoomMode,
+        double fovZoomStrength,
+        boolean rateLimitEnabled,
+        int rateLimitBurst,
+        double rateLimitRefillPerSecond,
+        boolean statsEnabled,
+        int prometheusIntervalSeconds,
+        boolean traceEvents,
+        Map<String, String> messages
+) {
+
+    public ZoomSettings {
+        messages = Map.copyOf(messages);
+    }
+
+    /**
+     * Reads every setting from the given configuration, using the same
+     * defaults as the bundled config.yml for missing keys.
+     */
+    public static ZoomSettings from(ConfigurationSection config) {
+        Map<String, String> messages = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("messages");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                String value = section.getString(key);
+                if (value != null) {
+                    messages.put(key, value);
+                }
+            }
+        }
+
+        String prefix = config.getString("prefix", "");
+        ZoomMode zoomMode = ZoomMode.parse(config.getString("zoom-mode", "spyglass"));
+        String updateApiUrl = config.getString("update-api-url", "https://api.modrinth.com/v2");
+        return new ZoomSettings(
+                prefix != null ? prefix : "",
+                config.getBoolean("check-updates", true),
+                Math.max(0, config.getInt("update-check-interval", 0)),
+                updateApiUrl != null ? updateApiUrl : "https://api.modrinth.com/v2",
+                config.getBoolean("auto-reload", false),
+                config.getBoolean("remove-on-move", true),
+                "sampled".equalsIgnoreCase(config.getString("move-detection", "event")),
+                Math.max(1, config.getInt("move-check-interval", 1)),
+                Math.max(0.0, config.getDouble("move-distance", 0.5)),
+                config.getBoolean("remove-on-hotbar-switch", true),
+                config.getBoolean("remove-on-stop-zoom", false),
+                Math.max(0, config.getInt("max-zoom-duration", 0)),
+                Math.max(0, config.getInt("idle-timeout", 0)),
+                zoomMode != null ? zoomMode : ZoomMode.SPYGLASS,
+                Math.clamp(config.getDouble("fov-zoom-strength", 0.9), 0.0, 1.0),
+                config.getBoolean("rate-limit.enabled", true),
+                Math.max(1, config.getInt("rate-limit.burst", 3)),
+                Math.max(0.01, config.getDouble("rate-limit.refill-per-second", 0.5)),
+                config.getBoolean("stats.enabled", false),
+                Math.max(0, config.getInt("stats.prometheus-interval", 0)),
+                config.getBoolean("trace-events", false),
+                messages
+        );
+    }
+
+    /**
+     * At least one removal option must be enabled, otherwise a spyglass
+     * given by /zoom would never be taken back.
+     */
+    public boolean hasRemovalTrigger() {
+        return removeOnMove || removeOnHotbarSwitch || removeOnStopZoom;
+    }
+
+    /**
+     * Server default removal triggers as {@link ZoomSession} trigger bits.
+     */
+    public int defaultTriggers() {
+        return (removeOnMove ? ZoomSession.REMOVE_ON_MOVE : 0)
+                | (removeOnHotbarSwitch ? ZoomSession.REMOVE_ON_HOTBAR_SWITCH : 0)
+                | (removeOnStopZoom ? ZoomSession.REMOVE_ON_STOP_ZOOM : 0);
+    }
+}
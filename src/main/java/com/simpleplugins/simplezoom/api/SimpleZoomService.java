@@ -0,0 +1,32 @@
+package com.simpleplugins.simplezoom.api;
+
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Who is zooming, for other plugins. Registered with Bukkit's
+ * {@link org.bukkit.plugin.ServicesManager} while SimpleZoom is enabled:
+ * <pre>{@code
+ * SimpleZoomService zoom = Bukkit.getServicesManager().load(SimpleZoomService.class);
+ * }</pre>
+ * Answers come straight from SimpleZoom's session table and are safe to ask
+ * from any thread. Listen to {@link ZoomStartEvent} and {@link ZoomEndEvent}
+ * instead of polling for changes.
+ */
+public interface SimpleZoomService {
+
+    /**
+     * True if the player is zooming through SimpleZoom. A spyglass the player
+     * is holding on their own does not count.
+     */
+    boolean isZooming(Player player);
+
+    int getZoomingCount();
+
+    /**
+     * Players zooming at the time of the call. The list is a copy and does not
+     * change afterwards.
+     */
+    List<Player> getZoomingPlayers();
+}
@@ -0,0 +1,36 @@
+package com.simpleplugins.simplezoom.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Fired after a player's zoom ended and their off-hand item was given back.
+ * The server-side inventory already holds the restored item; the client
+ * sees it with the rest of the tick's inventory changes.
+ * Only fired while at least one listener is registered.
+ */
+public final class ZoomEndEvent extends PlayerEvent {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final ZoomEndReason reason;
+
+    public ZoomEndEvent(Player player, ZoomEndReason reason) {
+        super(player);
+        this.reason = reason;
+    }
+
+    public ZoomEndReason getReason() {
+        return reason;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
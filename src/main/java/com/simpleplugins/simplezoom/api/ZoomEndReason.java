@@ -0,0 +1,28 @@
+package com.simpleplugins.simplezoom.api;
+
+/**
+ * Why a zoom ended, as reported by {@link ZoomEndEvent}.
+ */
+public enum ZoomEndReason {
+    /** The player moved into another block */
+    MOVE,
+    /** The player switched hotbar slots */
+    HOTBAR_SWITCH,
+    /** The player stopped using the spyglass */
+    STOP_ZOOM,
+    /** The player ran /zoom again (FOV mode) */
+    COMMAND,
+    /** The zoom reached max-zoom-duration */
+    MAX_DURATION,
+    /** The player neither moved nor looked around for idle-timeout */
+    IDLE,
+    /** The player left the server */
+    QUIT,
+    /** The spyglass left the off hand some other way, e.g. a death or another plugin */
+    SPYGLASS_LOST,
+    /**
+     * SimpleZoom was disabled on a server shutdown. On a plugin reload the
+     * sessions are handed to the next instance instead and no event is fired.
+     */
+    DISABLE
+}
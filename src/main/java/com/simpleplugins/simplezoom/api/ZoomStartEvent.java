@@ -0,0 +1,51 @@
+package com.simpleplugins.simplezoom.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Fired before a player starts zooming, before their inventory is touched.
+ * Cancelling it leaves the player as they were. Only fired while at least
+ * one listener is registered.
+ */
+public final class ZoomStartEvent extends PlayerEvent implements Cancellable {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final boolean fovMode;
+    private boolean cancelled;
+
+    public ZoomStartEvent(Player player, boolean fovMode) {
+        super(player);
+        this.fovMode = fovMode;
+    }
+
+    /**
+     * True if the zoom narrows the view with a movement-speed modifier
+     * instead of putting a spyglass in the off hand.
+     */
+    public boolean isFovMode() {
+        return fovMode;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancel) {
+        this.cancelled = cancel;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
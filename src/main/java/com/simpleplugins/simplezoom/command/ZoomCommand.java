@@ -1,29 +1,41 @@
 package com.simpleplugins.simplezoom.command;
 
-import com.simpleplugins.simplezoom.ConfigUpdater;
 import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.metrics.LatencyHistogram;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
+import com.simpleplugins.simplezoom.storage.PreferenceStore;
 import com.simpleplugins.simplezoom.zoom.ZoomManager;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import com.simpleplugins.simplezoom.zoom.ZoomPreferences;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
+import java.util.UUID;
+
 /**
  * Handles /zoom - gives the player a spyglass in their off hand.
  * The native spyglass zoom works when the item is held.
  * Previous off-hand item is saved and restored when spyglass is removed.
+ * In FOV mode /zoom narrows the view instead and a second /zoom ends it.
+ * /zoom settings lets a player pick which removal triggers end their own zooms.
  */
 public final class ZoomCommand implements CommandExecutor {
 
     private final SimpleZoom plugin;
     private final ZoomManager zoomManager;
+    private final ZoomRateLimiter rateLimiter;
+    private final PreferenceStore preferences;
 
-    public ZoomCommand(SimpleZoom plugin, ZoomManager zoomManager) {
+    public ZoomCommand(SimpleZoom plugin, ZoomManager zoomManager, ZoomRateLimiter rateLimiter,
+                       PreferenceStore preferences) {
         this.plugin = plugin;
         this.zoomManager = zoomManager;
+        this.rateLimiter = rateLimiter;
+        this.preferences = preferences;
     }
 
     @Override
@@ -31,38 +43,124 @@ public final class ZoomCommand implements CommandExecutor {
                             @NotNull String label, @NotNull String[] args) {
         if (args.length > 0 && "reload".equalsIgnoreCase(args[0])) {
             if (!sender.hasPermission("szoom.reload")) {
-                sendMessage(sender, getMessage("reload-no-permission"));
+                send(sender, "reload-no-permission");
                 return true;
             }
-            ConfigUpdater.mergeWithDefaults(plugin);
-            plugin.reloadConfig();
-            sendMessage(sender, getMessage("reload-success"));
+            plugin.reloadSettings(result -> send(sender, switch (result) {
+                case APPLIED -> "reload-success";
+                case INVALID -> "reload-invalid";
+                case UNREADABLE -> "reload-failed";
+            }));
+            return true;
+        }
+
+        if (args.length > 0 && "stats".equalsIgnoreCase(args[0])) {
+            if (!sender.hasPermission("szoom.stats")) {
+                send(sender, "no-permission");
+                return true;
+            }
+            sendStats(sender);
             return true;
         }
 
         if (!(sender instanceof Player player)) {
-            sendMessage(sender, getMessage("player-only"));
+            send(sender, "player-only");
+            return true;
+        }
+
+        if (args.length > 0 && "settings".equalsIgnoreCase(args[0])) {
+            if (!player.hasPermission("szoom.settings")) {
+                send(player, "no-permission");
+                return true;
+            }
+            changeSettings(player, args);
             return true;
         }
 
         if (!player.hasPermission("szoom.use")) {
-            sendMessage(player, getMessage("no-permission"));
+            send(player, "no-permission");
+            return true;
+        }
+
+        // only starting a zoom costs a token, so a throttled player can always end one
+        if (zoomManager.getSession(player) == null && !player.hasPermission("szoom.bypass.ratelimit")
+                && !rateLimiter.tryAcquire(player.getUniqueId())) {
+            send(player, "throttled");
             return true;
         }
 
-        zoomManager.giveSpyglass(player);
+        zoomManager.zoom(player);
         return true;
     }
 
-    private String getMessage(String key) {
-        return plugin.getConfig().getString("messages." + key, "&7[" + key + "]");
+    /**
+     * /zoom settings [move|hotbar|stop|reset]: shows or toggles the player's
+     * removal triggers. Changes apply from their next zoom.
+     */
+    private void changeSettings(Player player, String[] args) {
+        UUID playerId = player.getUniqueId();
+        int triggers = ZoomPreferences.triggers(preferences.get(playerId), plugin.getSettings());
+        if (args.length > 1) {
+            int toggle = switch (args[1].toLowerCase(Locale.ROOT)) {
+                case "move" -> ZoomSession.REMOVE_ON_MOVE;
+                case "hotbar" -> ZoomSession.REMOVE_ON_HOTBAR_SWITCH;
+                case "stop" -> ZoomSession.REMOVE_ON_STOP_ZOOM;
+                case "reset" -> 0;
+                default -> -1;
+            };
+            if (toggle < 0) {
+                send(player, "settings-usage");
+                return;
+            }
+            if (toggle == 0) {
+                preferences.set(playerId, PreferenceStore.NONE);
+                triggers = plugin.getSettings().defaultTriggers();
+            } else if ((triggers ^ toggle) == 0) {
+                send(player, "settings-need-one");
+                return;
+            } else {
+                triggers ^= toggle;
+                preferences.set(playerId, ZoomPreferences.custom(triggers));
+            }
+            send(player, "settings-updated");
+        }
+        send(player, "settings-show",
+                "move", onOff(triggers, ZoomSession.REMOVE_ON_MOVE),
+                "hotbar", onOff(triggers, ZoomSession.REMOVE_ON_HOTBAR_SWITCH),
+                "stop", onOff(triggers, ZoomSession.REMOVE_ON_STOP_ZOOM));
+    }
+
+    private static String onOff(int triggers, int trigger) {
+        return (triggers & trigger) != 0 ? "on" : "off";
+    }
+
+    private void sendStats(CommandSender sender) {
+        ZoomMetrics metrics = zoomManager.getMetrics();
+        send(sender, "stats-active", "count", Integer.toString(zoomManager.getSessionCount()));
+        for (ZoomMetrics.Path path : ZoomMetrics.Path.values()) {
+            send(sender, "stats-path", "path", path.name().toLowerCase(Locale.ROOT),
+                    "given", Long.toString(metrics.gives(path)), "restored", Long.toString(metrics.restores(path)));
+        }
+        send(sender, "stats-inventory-writes", "count", Long.toString(metrics.inventoryWrites()));
+        if (!metrics.isEnabled()) {
+            send(sender, "stats-disabled");
+            return;
+        }
+        for (LatencyHistogram histogram : metrics.listenerHistograms()) {
+            sendTiming(sender, histogram);
+        }
+        sendTiming(sender, metrics.stopDetector);
+        sendTiming(sender, metrics.moveSampler);
+    }
+
+    private void sendTiming(CommandSender sender, LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        send(sender, "stats-timing", "name", histogram.name(), "calls", Long.toString(snapshot.count()),
+                "mean", String.format(Locale.ROOT, "%.1f", snapshot.meanMicros()),
+                "p99", String.format(Locale.ROOT, "%.1f", snapshot.quantileMicros(0.99)));
     }
 
-    private void sendMessage(CommandSender sender, String raw) {
-        String prefix = plugin.getConfig().getString("prefix", "");
-        String text = (prefix != null && !prefix.isEmpty()) ? prefix + raw : raw;
-        text = text.replace('&', '\u00A7');
-        Component component = LegacyComponentSerializer.legacySection().deserialize(text);
-        sender.sendMessage(component);
+    private void send(CommandSender sender, String key, String... placeholders) {
+        plugin.getMessages().send(sender, key, placeholders);
     }
 }
@@ -0,0 +1,71 @@
+package com.simpleplugins.simplezoom.command;
+
+import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.ZoomSettings;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player token bucket for /zoom, checked before any inventory work.
+ * <p>
+ * A bucket is one {@link AtomicLong}: the time of the last refill in
+ * milliseconds in the high bits, and the token count as 10-bit fixed point in
+ * the low {@value #TOKEN_BITS} bits. A check is a read, some arithmetic and a
+ * CAS, with no lock and no allocation once the player's bucket exists. A
+ * denied check writes nothing; the refill is computed again from the same
+ * timestamp next time.
+ */
+public final class ZoomRateLimiter {
+
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    /** One token in fixed point */
+    private static final long ONE = 1 << 10;
+    private static final long MAX_TOKENS = TOKEN_MASK / ONE;
+
+    private final SimpleZoom plugin;
+    private final Map<UUID, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long origin = System.nanoTime();
+
+    public ZoomRateLimiter(SimpleZoom plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Takes one token from the player's bucket.
+     *
+     * @return true if the player may zoom now
+     */
+    public boolean tryAcquire(UUID playerId) {
+        ZoomSettings settings = plugin.getSettings();
+        if (!settings.rateLimitEnabled()) return true;
+
+        long capacity = Math.min(settings.rateLimitBurst(), MAX_TOKENS) * ONE;
+        long refillPerSecond = Math.round(settings.rateLimitRefillPerSecond() * ONE);
+        long now = (System.nanoTime() - origin) / 1_000_000L;
+
+        AtomicLong bucket = buckets.get(playerId);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(playerId, id -> new AtomicLong(pack(now, capacity)));
+        }
+        while (true) {
+            long state = bucket.get();
+            long last = state >>> TOKEN_BITS;
+            long elapsed = Math.max(0, now - last);
+            long tokens = Math.min(capacity, (state & TOKEN_MASK) + elapsed * refillPerSecond / 1000L);
+            if (tokens < ONE) return false;
+            if (bucket.compareAndSet(state, pack(Math.max(now, last), tokens - ONE))) return true;
+        }
+    }
+
+    public void forget(UUID playerId) {
+        buckets.remove(playerId);
+    }
+
+    private static long pack(long millis, long tokens) {
+        return (millis << TOKEN_BITS) | tokens;
+    }
+}
@@ -1,54 +1,98 @@
 package com.simpleplugins.simplezoom.listener;
 
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
 import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.PlayerInventory;
 
 /**
  * Prevents players from taking or moving the stored item while zooming.
  * The item is in a slot temporarily and must stay there until zoom ends.
+ * Decides by comparing the session's parked slot with the clicked slot; the
+ * PDC marker is only read as a fallback for the cursor.
+ * Only registered while someone is zooming; see {@link TriggerListenerRegistry}.
  */
 public final class InventoryGuardListener implements Listener {
 
     private final ZoomManager zoomManager;
+    private final ZoomMetrics metrics;
 
     public InventoryGuardListener(ZoomManager zoomManager) {
         this.zoomManager = zoomManager;
+        this.metrics = zoomManager.getMetrics();
     }
 
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
     public void onInventoryClick(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player player)) return;
-        if (!zoomManager.hasZoomSpyglass(player)) return;
+        long start = metrics.start();
+        handleClick(event);
+        metrics.stop(metrics.inventoryGuard, start);
+    }
 
-        ItemStack cursor = event.getCursor();
-        ItemStack clicked = event.getCurrentItem();
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        long start = metrics.start();
+        handleDrag(event);
+        metrics.stop(metrics.inventoryGuard, start);
+    }
 
-        if (zoomManager.isStoredItem(cursor) || zoomManager.isStoredItem(clicked)) {
+    private void handleClick(InventoryClickEvent event) {
+        if (!(event.getWhoClicked() instanceof Player player)) return;
+        int parked = parkedSlot(player);
+        if (parked < 0) return;
+
+        if (event.getSlot() == parked && isOwnInventory(event.getClickedInventory(), player)) {
+            event.setCancelled(true);
+        } else if (event.getClick() == ClickType.NUMBER_KEY && event.getHotbarButton() == parked) {
+            event.setCancelled(true);
+        } else if (event.getAction() == InventoryAction.COLLECT_TO_CURSOR) {
+            // double-click gathers matching stacks from every slot, including the parked one
+            event.setCancelled(true);
+        } else if (zoomManager.isStoredItem(event.getCursor())) {
             event.setCancelled(true);
         }
     }
 
-    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
-    public void onInventoryDrag(InventoryDragEvent event) {
+    private void handleDrag(InventoryDragEvent event) {
         if (!(event.getWhoClicked() instanceof Player player)) return;
-        if (!zoomManager.hasZoomSpyglass(player)) return;
+        int parked = parkedSlot(player);
+        if (parked < 0) return;
 
         if (zoomManager.isStoredItem(event.getOldCursor())) {
             event.setCancelled(true);
             return;
         }
-        for (int slot : event.getRawSlots()) {
-            ItemStack item = event.getView().getItem(slot);
-            if (zoomManager.isStoredItem(item)) {
+        InventoryView view = event.getView();
+        for (int rawSlot : event.getRawSlots()) {
+            if (view.convertSlot(rawSlot) == parked && isOwnInventory(view.getInventory(rawSlot), player)) {
                 event.setCancelled(true);
                 return;
             }
         }
     }
+
+    /**
+     * Storage slot holding the player's parked off-hand item, or -1 if nothing is parked.
+     */
+    private int parkedSlot(Player player) {
+        ZoomSession session = zoomManager.getSession(player);
+        if (session != null && session.stash() instanceof ZoomSession.InSlot inSlot) {
+            return inSlot.slot();
+        }
+        return -1;
+    }
+
+    private static boolean isOwnInventory(Inventory inventory, Player player) {
+        return inventory instanceof PlayerInventory playerInventory && playerInventory.getHolder() == player;
+    }
 }
@@ -1,30 +1,36 @@
 package com.simpleplugins.simplezoom.listener;
 
-import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
 import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerItemHeldEvent;
 
 /**
- * Removes spyglass from off hand when the player switches hotbar slot (if remove-on-hotbar-switch is enabled).
+ * Removes spyglass from off hand when the player switches hotbar slot, for zooms that
+ * end on hotbar switch (remove-on-hotbar-switch, or the player's own /zoom settings).
+ * Only registered while someone is zooming; see {@link TriggerListenerRegistry}.
  */
 public final class PlayerItemHeldListener implements Listener {
 
-    private final SimpleZoom plugin;
     private final ZoomManager zoomManager;
+    private final ZoomMetrics metrics;
 
-    public PlayerItemHeldListener(SimpleZoom plugin, ZoomManager zoomManager) {
-        this.plugin = plugin;
+    public PlayerItemHeldListener(ZoomManager zoomManager) {
         this.zoomManager = zoomManager;
+        this.metrics = zoomManager.getMetrics();
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerItemHeld(PlayerItemHeldEvent event) {
-        if (!plugin.getConfig().getBoolean("remove-on-hotbar-switch", true)) return;
-        if (!zoomManager.hasZoomSpyglass(event.getPlayer())) return;
-
-        zoomManager.removeSpyglass(event.getPlayer());
+        long start = metrics.start();
+        ZoomSession session = zoomManager.getSession(event.getPlayer());
+        if (session != null && session.removesOn(ZoomSession.REMOVE_ON_HOTBAR_SWITCH)) {
+            zoomManager.removeSpyglass(event.getPlayer(), ZoomEndReason.HOTBAR_SWITCH);
+        }
+        metrics.stop(metrics.itemHeldListener, start);
     }
 }
@@ -0,0 +1,29 @@
+package com.simpleplugins.simplezoom.listener;
+
+import com.simpleplugins.simplezoom.storage.PreferenceStore;
+import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Gives back off-hand items left in the restore journal by a crash or shutdown,
+ * and keeps the player's preferences loaded at pre-login until they quit.
+ */
+public final class PlayerJoinListener implements Listener {
+
+    private final ZoomManager zoomManager;
+    private final PreferenceStore preferences;
+
+    public PlayerJoinListener(ZoomManager zoomManager, PreferenceStore preferences) {
+        this.zoomManager = zoomManager;
+        this.preferences = preferences;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        preferences.joined(event.getPlayer().getUniqueId());
+        zoomManager.restorePending(event.getPlayer());
+    }
+}
@@ -1,7 +1,9 @@
 package com.simpleplugins.simplezoom.listener;
 
-import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
 import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
 import org.bukkit.Location;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -9,22 +11,30 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 
 /**
- * Removes spyglass from off hand when the player moves (if remove-on-move is enabled).
+ * Removes spyglass from off hand when the player moves, for zooms that end on move
+ * (remove-on-move, or the player's own /zoom settings).
+ * Only registered while someone is zooming; see {@link TriggerListenerRegistry}.
  */
 public final class PlayerMoveListener implements Listener {
 
-    private final SimpleZoom plugin;
     private final ZoomManager zoomManager;
+    private final ZoomMetrics metrics;
 
-    public PlayerMoveListener(SimpleZoom plugin, ZoomManager zoomManager) {
-        this.plugin = plugin;
+    public PlayerMoveListener(ZoomManager zoomManager) {
         this.zoomManager = zoomManager;
+        this.metrics = zoomManager.getMetrics();
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerMove(PlayerMoveEvent event) {
-        if (!plugin.getConfig().getBoolean("remove-on-move", true)) return;
-        if (!zoomManager.hasZoomSpyglass(event.getPlayer())) return;
+        long start = metrics.start();
+        handleMove(event);
+        metrics.stop(metrics.moveListener, start);
+    }
+
+    private void handleMove(PlayerMoveEvent event) {
+        ZoomSession session = zoomManager.getSession(event.getPlayer());
+        if (session == null || !session.removesOn(ZoomSession.REMOVE_ON_MOVE)) return;
 
         Location from = event.getFrom();
         Location to = event.getTo();
@@ -33,7 +43,7 @@ public final class PlayerMoveListener implements Listener {
         if (from.getBlockX() != to.getBlockX()
                 || from.getBlockY() != to.getBlockY()
                 || from.getBlockZ() != to.getBlockZ()) {
-            zoomManager.removeSpyglass(event.getPlayer());
+            zoomManager.removeSpyglass(event.getPlayer(), ZoomEndReason.MOVE);
         }
     }
 }
@@ -0,0 +1,26 @@
+package com.simpleplugins.simplezoom.listener;
+
+import com.simpleplugins.simplezoom.storage.PreferenceStore;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+
+/**
+ * Reads the joining player's zoom preferences on the async login thread, so
+ * the server thread only ever sees them in memory.
+ */
+public final class PlayerPreLoginListener implements Listener {
+
+    private final PreferenceStore preferences;
+
+    public PlayerPreLoginListener(PreferenceStore preferences) {
+        this.preferences = preferences;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        preferences.load(event.getUniqueId());
+    }
+}
@@ -1,5 +1,8 @@
 package com.simpleplugins.simplezoom.listener;
 
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.command.ZoomRateLimiter;
+import com.simpleplugins.simplezoom.storage.PreferenceStore;
 import com.simpleplugins.simplezoom.zoom.ZoomManager;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -7,18 +10,27 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
- * Cleans up zoom state when a player leaves.
+ * Ends the zoom when a player leaves so the original off-hand item is saved
+ * with their player data, and drops their /zoom rate-limit bucket and their
+ * cached preferences.
  */
 public final class PlayerQuitListener implements Listener {
 
     private final ZoomManager zoomManager;
+    private final ZoomRateLimiter rateLimiter;
+    private final PreferenceStore preferences;
 
-    public PlayerQuitListener(ZoomManager zoomManager) {
+    public PlayerQuitListener(ZoomManager zoomManager, ZoomRateLimiter rateLimiter, PreferenceStore preferences) {
         this.zoomManager = zoomManager;
+        this.rateLimiter = rateLimiter;
+        this.preferences = preferences;
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerQuit(PlayerQuitEvent event) {
-        zoomManager.clear(event.getPlayer());
+        zoomManager.removeSpyglass(event.getPlayer(), ZoomEndReason.QUIT);
+        zoomManager.clear(event.getPlayer(), ZoomEndReason.QUIT);
+        rateLimiter.forget(event.getPlayer().getUniqueId());
+        preferences.unload(event.getPlayer().getUniqueId());
     }
 }
@@ -0,0 +1,56 @@
+package com.simpleplugins.simplezoom.listener;
+
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
+import io.papermc.paper.event.player.PlayerStopUsingItemEvent;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerItemConsumeEvent;
+
+/**
+ * Removes spyglass from off hand on the exact tick the player stops zooming
+ * (for zooms that end on stop-zoom: remove-on-stop-zoom, or the player's own /zoom settings). Paper only; servers without
+ * {@link PlayerStopUsingItemEvent} use {@link com.simpleplugins.simplezoom.zoom.ZoomStopDetector}.
+ * Like that poller, it also drops any spyglass zoom whose spyglass is no longer in the off hand.
+ * Only registered while someone is zooming; see {@link TriggerListenerRegistry}.
+ */
+public final class PlayerStopUsingItemListener implements Listener {
+
+    private final ZoomManager zoomManager;
+
+    public PlayerStopUsingItemListener(ZoomManager zoomManager) {
+        this.zoomManager = zoomManager;
+    }
+
+    /** Player released right-click. */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerStopUsingItem(PlayerStopUsingItemEvent event) {
+        if (event.getItem().getType() != Material.SPYGLASS) return;
+        stopZoom(event.getPlayer());
+    }
+
+    /** Spyglass use ran for its full duration; the server completes it like a consumable. */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerItemConsume(PlayerItemConsumeEvent event) {
+        if (event.getItem().getType() != Material.SPYGLASS) return;
+        stopZoom(event.getPlayer());
+    }
+
+    private void stopZoom(Player player) {
+        if (isSpyglassZoom(player)) {
+            zoomManager.removeSpyglass(player, ZoomEndReason.STOP_ZOOM);
+        }
+        zoomManager.checkSpyglass(player);
+    }
+
+    /** FOV-mode sessions ignore the spyglass; they end through /zoom or the other triggers. */
+    private boolean isSpyglassZoom(Player player) {
+        ZoomSession session = zoomManager.getSession(player);
+        return session != null && session.removesOn(ZoomSession.REMOVE_ON_STOP_ZOOM)
+                && !(session.stash() instanceof ZoomSession.ViewModifier);
+    }
+}
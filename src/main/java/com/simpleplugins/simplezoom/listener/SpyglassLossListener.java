@@ -0,0 +1,61 @@
+package com.simpleplugins.simplezoom.listener;
+
+import com.simpleplugins.simplezoom.scheduler.ZoomScheduler;
+import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+
+/**
+ * Ends a spyglass zoom once the spyglass has left the off hand through a
+ * hand swap, a drop, an inventory click or a death, so the parked item is
+ * released instead of staying marked and guarded until the player quits.
+ * The event fires before the item moves, so the check runs on the player's
+ * next tick. The stop-zoom poller does the same check on servers without
+ * Paper's use-item events.
+ * Only registered while someone is zooming; see {@link TriggerListenerRegistry}.
+ */
+public final class SpyglassLossListener implements Listener {
+
+    private final ZoomManager zoomManager;
+    private final ZoomScheduler scheduler;
+
+    public SpyglassLossListener(ZoomManager zoomManager, ZoomScheduler scheduler) {
+        this.zoomManager = zoomManager;
+        this.scheduler = scheduler;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerSwapHandItems(PlayerSwapHandItemsEvent event) {
+        checkLater(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerDropItem(PlayerDropItemEvent event) {
+        checkLater(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player) {
+            checkLater(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        checkLater(event.getEntity());
+    }
+
+    private void checkLater(Player player) {
+        ZoomSession session = zoomManager.getSession(player);
+        if (session == null || session.stash() instanceof ZoomSession.ViewModifier) return;
+        scheduler.runForPlayer(player, () -> zoomManager.checkSpyglass(player));
+    }
+}
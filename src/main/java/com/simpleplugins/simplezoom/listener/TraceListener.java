@@ -0,0 +1,129 @@
+package com.simpleplugins.simplezoom.listener;
+
+import com.simpleplugins.simplezoom.trace.TraceRecorder;
+import io.papermc.paper.event.player.PlayerStopUsingItemEvent;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.inventory.DragType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Feeds the events SimpleZoom reacts to into a {@link TraceRecorder}: /zoom,
+ * moves into another block, held-slot changes, inventory clicks and drags,
+ * spyglass use start and stop, and quits. Registered only while trace-events
+ * is on. Moves and slot changes are recorded as the trigger listeners see
+ * them (MONITOR, not cancelled); clicks and drags at LOWEST, before
+ * {@link InventoryGuardListener} decides on them.
+ * <p>
+ * Use start and stop come from Paper events and the interact event, so on
+ * servers without {@link PlayerStopUsingItemEvent} this listener is not used.
+ */
+public final class TraceListener implements Listener {
+
+    private final Server server;
+    private final TraceRecorder recorder;
+    private final Set<String> labels;
+
+    public TraceListener(Server server, PluginCommand zoomCommand, TraceRecorder recorder) {
+        this.server = server;
+        this.recorder = recorder;
+        String namespaced = zoomCommand.getPlugin().getName().toLowerCase(Locale.ROOT) + ":";
+        Set<String> names = new HashSet<>();
+        names.add(zoomCommand.getName());
+        names.add(namespaced + zoomCommand.getName());
+        for (String alias : zoomCommand.getAliases()) {
+            names.add(alias);
+            names.add(namespaced + alias);
+        }
+        this.labels = Set.copyOf(names);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerCommandPreprocess(PlayerCommandPreprocessEvent event) {
+        String message = event.getMessage();
+        int space = message.indexOf(' ');
+        String label = (space < 0 ? message.substring(1) : message.substring(1, space)).toLowerCase(Locale.ROOT);
+        if (!labels.contains(label)) return;
+
+        Player player = event.getPlayer();
+        recorder.command(player.getUniqueId(), server.getCurrentTick(), offHandState(player.getInventory()),
+                space < 0 ? "" : message.substring(space + 1).trim());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX()
+                && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ()) {
+            return;
+        }
+        recorder.move(event.getPlayer().getUniqueId(), server.getCurrentTick(), to.getX(), to.getY(), to.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerItemHeld(PlayerItemHeldEvent event) {
+        recorder.held(event.getPlayer().getUniqueId(), server.getCurrentTick(),
+                event.getPreviousSlot(), event.getNewSlot());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        recorder.click(event.getWhoClicked().getUniqueId(), server.getCurrentTick(), event.getRawSlot(),
+                event.getHotbarButton(), event.getClick().name(), event.getAction().name());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        int[] rawSlots = event.getRawSlots().stream().mapToInt(Integer::intValue).toArray();
+        recorder.drag(event.getWhoClicked().getUniqueId(), server.getCurrentTick(),
+                event.getType() == DragType.SINGLE, rawSlots);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        if (event.getAction() != Action.RIGHT_CLICK_AIR && event.getAction() != Action.RIGHT_CLICK_BLOCK) return;
+        ItemStack item = event.getItem();
+        if (item == null || item.getType() != Material.SPYGLASS) return;
+        recorder.useStart(event.getPlayer().getUniqueId(), server.getCurrentTick(),
+                event.getHand() == EquipmentSlot.OFF_HAND);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerStopUsingItem(PlayerStopUsingItemEvent event) {
+        if (event.getItem().getType() != Material.SPYGLASS) return;
+        recorder.useStop(event.getPlayer().getUniqueId(), server.getCurrentTick(), event.getTicksHeldFor());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        recorder.quit(event.getPlayer().getUniqueId(), server.getCurrentTick());
+    }
+
+    private static byte offHandState(PlayerInventory inventory) {
+        ItemStack offHand = inventory.getItemInOffHand();
+        if (offHand.getType().isAir()) return TraceRecorder.OFF_HAND_EMPTY;
+        return inventory.firstEmpty() >= 0 ? TraceRecorder.OFF_HAND_ITEM : TraceRecorder.OFF_HAND_ITEM_FULL_INVENTORY;
+    }
+}
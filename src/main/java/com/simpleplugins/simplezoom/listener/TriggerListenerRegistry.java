@@ -0,0 +1,110 @@
+package com.simpleplugins.simplezoom.listener;
+
+import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.ZoomSettings;
+import com.simpleplugins.simplezoom.scheduler.ZoomScheduler;
+import com.simpleplugins.simplezoom.zoom.MoveSampler;
+import com.simpleplugins.simplezoom.zoom.ZoomManager;
+import com.simpleplugins.simplezoom.zoom.ZoomSession;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+
+/**
+ * Keeps the gameplay listeners registered only while at least one player is
+ * zooming, and only for the removal triggers that at least one active zoom
+ * uses (server defaults or that player's /zoom settings). With nobody
+ * zooming Bukkit never dispatches move, held-item or inventory events to
+ * SimpleZoom at all.
+ * With move-detection: sampled the move listener is replaced by a
+ * {@link MoveSampler} timer, which likewise only runs while someone zooms.
+ * The same goes for the per-tick expiry wheel timer behind max-zoom-duration
+ * and idle-timeout.
+ * <p>
+ * {@link #refresh()} is idempotent and re-reads the current state, so it is
+ * safe to call on every session start/end and after a reload.
+ */
+public final class TriggerListenerRegistry {
+
+    private final SimpleZoom plugin;
+    private final ZoomManager zoomManager;
+
+    private final PlayerMoveListener moveListener;
+    private final PlayerItemHeldListener itemHeldListener;
+    private final InventoryGuardListener inventoryGuardListener;
+    private final SpyglassLossListener spyglassLossListener;
+    /** Null when the server lacks Paper's use-item events */
+    private final Listener stopUsingItemListener;
+
+    private boolean moveRegistered;
+    private boolean itemHeldRegistered;
+    private boolean inventoryGuardRegistered;
+    private boolean spyglassLossRegistered;
+    private boolean stopUsingItemRegistered;
+
+    private final MoveSampler moveSampler;
+    private ZoomScheduler.Task moveSamplerTask;
+    private int moveSamplerInterval;
+    private ZoomScheduler.Task expiryTask;
+
+    public TriggerListenerRegistry(SimpleZoom plugin, ZoomManager zoomManager, boolean useItemEvents) {
+        this.plugin = plugin;
+        this.zoomManager = zoomManager;
+        this.moveListener = new PlayerMoveListener(zoomManager);
+        this.itemHeldListener = new PlayerItemHeldListener(zoomManager);
+        this.inventoryGuardListener = new InventoryGuardListener(zoomManager);
+        this.spyglassLossListener = new SpyglassLossListener(zoomManager, plugin.getZoomScheduler());
+        this.stopUsingItemListener = useItemEvents ? new PlayerStopUsingItemListener(zoomManager) : null;
+        this.moveSampler = new MoveSampler(plugin, zoomManager);
+    }
+
+    public synchronized void refresh() {
+        boolean active = plugin.isEnabled() && zoomManager.getSessionCount() > 0;
+        ZoomSettings settings = plugin.getSettings();
+
+        boolean moveWanted = active && zoomManager.getTriggerCount(ZoomSession.REMOVE_ON_MOVE) > 0;
+        moveRegistered = toggle(moveListener, moveRegistered, moveWanted && !settings.moveSampling());
+        scheduleMoveSampler(moveWanted && settings.moveSampling() ? settings.moveCheckInterval() : 0);
+        itemHeldRegistered = toggle(itemHeldListener, itemHeldRegistered, active && zoomManager.getTriggerCount(ZoomSession.REMOVE_ON_HOTBAR_SWITCH) > 0);
+        inventoryGuardRegistered = toggle(inventoryGuardListener, inventoryGuardRegistered, active);
+        spyglassLossRegistered = toggle(spyglassLossListener, spyglassLossRegistered, active);
+        scheduleExpiry(active && (settings.maxZoomDurationSeconds() > 0 || settings.idleTimeoutSeconds() > 0));
+        if (stopUsingItemListener != null) {
+            stopUsingItemRegistered = toggle(stopUsingItemListener, stopUsingItemRegistered,
+                    active && zoomManager.getTriggerCount(ZoomSession.REMOVE_ON_STOP_ZOOM) > 0);
+        }
+    }
+
+    /**
+     * Runs the sampler every interval ticks, or stops it for 0.
+     */
+    private void scheduleMoveSampler(int interval) {
+        if (interval == moveSamplerInterval) return;
+        if (moveSamplerTask != null) {
+            moveSamplerTask.cancel();
+            moveSamplerTask = null;
+        }
+        moveSamplerInterval = interval;
+        if (interval > 0) {
+            moveSamplerTask = plugin.getZoomScheduler().runGlobalTimer(moveSampler, interval, interval);
+        }
+    }
+
+    private void scheduleExpiry(boolean wanted) {
+        if (wanted == (expiryTask != null)) return;
+        if (wanted) {
+            expiryTask = plugin.getZoomScheduler().runGlobalTimer(zoomManager::tickExpiry, 1L, 1L);
+        } else {
+            expiryTask.cancel();
+            expiryTask = null;
+        }
+    }
+
+    private boolean toggle(Listener listener, boolean registered, boolean wanted) {
+        if (wanted && !registered) {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        } else if (!wanted && registered) {
+            HandlerList.unregisterAll(listener);
+        }
+        return wanted;
+    }
+}
@@ -0,0 +1,156 @@
+package com.simpleplugins.simplezoom.message;
+
+import com.simpleplugins.simplezoom.ZoomSettings;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Every plugin message, parsed once into a {@link Component} with the prefix
+ * already applied. Built off the server thread on enable and reload and
+ * replaced as a whole, like {@link ZoomSettings}.
+ * <p>
+ * Messages come from config.yml, overridden per client locale by
+ * {@code lang/<locale>.yml} (for example {@code lang/de_de.yml}, or
+ * {@code lang/de.yml} for every German variant). Each message may use legacy
+ * {@code &} codes or MiniMessage tags. {@code {name}} placeholders are the
+ * only part rendered per send; a message without them is sent as the cached
+ * component.
+ */
+public final class MessageCatalog {
+
+    private static final Pattern MINI_MESSAGE_TAG = Pattern.compile("<[a-zA-Z#/!][^<>]*>");
+    private static final LegacyComponentSerializer LEGACY = LegacyComponentSerializer.legacyAmpersand();
+
+    private final Map<String, Message> defaults;
+    /** Bundles by locale file name: "de_de", "de" */
+    private final Map<String, Map<String, Message>> bundles;
+    /** Resolved bundle per client locale, filled on first use */
+    private final Map<Locale, Map<String, Message>> byLocale = new ConcurrentHashMap<>();
+
+    private record Message(Component component, boolean hasPlaceholders) {
+    }
+
+    private MessageCatalog(Map<String, Message> defaults, Map<String, Map<String, Message>> bundles) {
+        this.defaults = defaults;
+        this.bundles = bundles;
+    }
+
+    /**
+     * Parses the messages in the settings and every {@code *.yml} in the lang
+     * folder. A broken locale file is skipped with a warning.
+     */
+    public static MessageCatalog load(ZoomSettings settings, Path langFolder, Logger logger) {
+        Map<String, Message> defaults = compile(settings.prefix(), settings.messages());
+        Map<String, Map<String, Message>> bundles = new HashMap<>();
+        if (Files.isDirectory(langFolder)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(langFolder, "*.yml")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String locale = name.substring(0, name.length() - 4).toLowerCase(Locale.ROOT);
+                    YamlConfiguration yaml = new YamlConfiguration();
+                    try {
+                        yaml.load(file.toFile());
+                    } catch (IOException | InvalidConfigurationException e) {
+                        logger.warning("Skipping lang/" + name + ": " + e.getMessage());
+                        continue;
+                    }
+                    Map<String, String> raw = new HashMap<>();
+                    for (String key : yaml.getKeys(false)) {
+                        if (!key.equals("prefix") && yaml.isString(key)) {
+                            raw.put(key, yaml.getString(key));
+                        }
+                    }
+                    bundles.put(locale, compile(yaml.getString("prefix", settings.prefix()), raw));
+                }
+            } catch (IOException e) {
+                logger.warning("Could not list lang folder: " + e.getMessage());
+            }
+        }
+        return new MessageCatalog(defaults, bundles);
+    }
+
+    /**
+     * Sends the message in the sender's locale. Placeholders are given as
+     * name/value pairs: {@code send(sender, "key", "player", name)} fills {@code {player}}.
+     */
+    public void send(CommandSender sender, String key, String... placeholders) {
+        Message message = lookup(sender, key);
+        if (!message.hasPlaceholders || placeholders.length == 0) {
+            sender.sendMessage(message.component);
+            return;
+        }
+        Component component = message.component;
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            component = component.replaceText(TextReplacementConfig.builder()
+                    .matchLiteral("{" + placeholders[i] + "}")
+                    .replacement(placeholders[i + 1])
+                    .build());
+        }
+        sender.sendMessage(component);
+    }
+
+    private Message lookup(CommandSender sender, String key) {
+        Map<String, Message> bundle = sender instanceof Player player && !bundles.isEmpty()
+                ? byLocale.computeIfAbsent(player.locale(), this::resolve) : defaults;
+        Message message = bundle.get(key);
+        if (message == null) {
+            message = defaults.get(key);
+        }
+        if (message == null) {
+            message = new Message(defaults.get("prefix").component.append(Component.text("[" + key + "]")), false);
+        }
+        return message;
+    }
+
+    private Map<String, Message> resolve(Locale locale) {
+        String full = locale.toString().toLowerCase(Locale.ROOT);
+        Map<String, Message> bundle = bundles.get(full);
+        if (bundle == null) {
+            bundle = bundles.get(locale.getLanguage().toLowerCase(Locale.ROOT));
+        }
+        return bundle != null ? bundle : defaults;
+    }
+
+    private static Map<String, Message> compile(String prefix, Map<String, String> raw) {
+        Map<String, Message> compiled = new HashMap<>();
+        compiled.put("prefix", new Message(parse(prefix), false));
+        boolean legacyPrefix = !isMiniMessage(prefix);
+        for (Map.Entry<String, String> e : raw.entrySet()) {
+            String text = e.getValue();
+            Component component;
+            if (legacyPrefix && !isMiniMessage(text)) {
+                // Keep colors from the prefix flowing into the message, as plain concatenation did
+                component = LEGACY.deserialize(prefix + text);
+            } else {
+                component = parse(prefix).append(parse(text));
+            }
+            compiled.put(e.getKey(), new Message(component, text.indexOf('{') >= 0));
+        }
+        return Map.copyOf(compiled);
+    }
+
+    private static Component parse(String text) {
+        return isMiniMessage(text) ? MiniMessage.miniMessage().deserialize(text) : LEGACY.deserialize(text);
+    }
+
+    private static boolean isMiniMessage(String text) {
+        return text.indexOf('<') >= 0 && MINI_MESSAGE_TAG.matcher(text).find();
+    }
+}
@@ -0,0 +1,78 @@
+package com.simpleplugins.simplezoom.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram on striped counters. Recording is a bounds
+ * scan and two adds, safe from any thread and free of allocation.
+ */
+public final class LatencyHistogram {
+
+    /** Upper bucket bounds in nanoseconds; the last bucket is unbounded */
+    static final long[] BOUNDS_NANOS = {
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000,
+            500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private final String name;
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    LatencyHistogram(String name) {
+        this.name = name;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Point-in-time copy of the counters. Buckets are read one by one, so the
+     * snapshot can be off by the few events recorded while it is taken.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        return new Snapshot(counts, total, sumNanos.sum());
+    }
+
+    public record Snapshot(long[] buckets, long count, long sumNanos) {
+
+        public double meanMicros() {
+            return count == 0 ? 0 : sumNanos / 1_000.0 / count;
+        }
+
+        /**
+         * Upper bound of the bucket containing the given quantile, in microseconds.
+         * Returns infinity if it falls in the unbounded bucket.
+         */
+        public double quantileMicros(double q) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(q * count);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS_NANOS.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return BOUNDS_NANOS[i] / 1_000.0;
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.simpleplugins.simplezoom.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.function.IntSupplier;
+
+/**
+ * Writes {@link ZoomMetrics} in the Prometheus text exposition format, for
+ * node_exporter's textfile collector or any scraper that reads files. The file
+ * is written to a temp name and moved into place so readers never see half of it.
+ */
+public final class PrometheusExporter {
+
+    private final ZoomMetrics metrics;
+    private final IntSupplier activeSessions;
+    private final Path file;
+
+    public PrometheusExporter(ZoomMetrics metrics, IntSupplier activeSessions, Path file) {
+        this.metrics = metrics;
+        this.activeSessions = activeSessions;
+        this.file = file;
+    }
+
+    public void write() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, render(), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP simplezoom_active_sessions Players currently zooming.\n");
+        out.append("# TYPE simplezoom_active_sessions gauge\n");
+        out.append("simplezoom_active_sessions ").append(activeSessions.getAsInt()).append('\n');
+
+        out.append("# HELP simplezoom_gives_total Spyglasses given, by where the off-hand item went.\n");
+        out.append("# TYPE simplezoom_gives_total counter\n");
+        for (ZoomMetrics.Path path : ZoomMetrics.Path.values()) {
+            out.append("simplezoom_gives_total{path=\"").append(label(path)).append("\"} ")
+                    .append(metrics.gives(path)).append('\n');
+        }
+        out.append("# HELP simplezoom_restores_total Off-hand items restored, by where they were kept.\n");
+        out.append("# TYPE simplezoom_restores_total counter\n");
+        for (ZoomMetrics.Path path : ZoomMetrics.Path.values()) {
+            out.append("simplezoom_restores_total{path=\"").append(label(path)).append("\"} ")
+                    .append(metrics.restores(path)).append('\n');
+        }
+        out.append("# HELP simplezoom_inventory_writes_total Inventory slots written by zoom swaps.\n");
+        out.append("# TYPE simplezoom_inventory_writes_total counter\n");
+        out.append("simplezoom_inventory_writes_total ").append(metrics.inventoryWrites()).append('\n');
+
+        out.append("# HELP simplezoom_listener_seconds Time spent in SimpleZoom event handlers.\n");
+        out.append("# TYPE simplezoom_listener_seconds histogram\n");
+        for (LatencyHistogram histogram : metrics.listenerHistograms()) {
+            appendHistogram(out, "simplezoom_listener_seconds", "listener=\"" + histogram.name() + "\"", histogram.snapshot());
+        }
+        out.append("# HELP simplezoom_stop_detector_seconds Time per stop-zoom polling pass.\n");
+        out.append("# TYPE simplezoom_stop_detector_seconds histogram\n");
+        appendHistogram(out, "simplezoom_stop_detector_seconds", "", metrics.stopDetector.snapshot());
+        out.append("# HELP simplezoom_move_sampler_seconds Time per sampled move-detection pass.\n");
+        out.append("# TYPE simplezoom_move_sampler_seconds histogram\n");
+        appendHistogram(out, "simplezoom_move_sampler_seconds", "", metrics.moveSampler.snapshot());
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, String labels, LatencyHistogram.Snapshot snapshot) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.BOUNDS_NANOS.length; i++) {
+            cumulative += snapshot.buckets()[i];
+            out.append(name).append("_bucket{").append(prefix).append("le=\"")
+                    .append(seconds(LatencyHistogram.BOUNDS_NANOS[i])).append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(snapshot.count()).append('\n');
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(braces).append(' ').append(seconds(snapshot.sumNanos())).append('\n');
+        out.append(name).append("_count").append(braces).append(' ').append(snapshot.count()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1e9);
+    }
+
+    private static String label(ZoomMetrics.Path path) {
+        return path.name().toLowerCase(Locale.ROOT);
+    }
+}
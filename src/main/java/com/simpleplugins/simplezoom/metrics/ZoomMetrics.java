@@ -0,0 +1,102 @@
+package com.simpleplugins.simplezoom.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hot-path instrumentation for /zoom stats, the Prometheus file and bStats.
+ * <p>
+ * Listener and detector timings are only taken while enabled; when disabled
+ * {@link #start()} returns 0 and {@link #stop(LatencyHistogram, long)} returns
+ * right away, so the cost is one volatile read per event. Give, restore and
+ * inventory write counts are always kept: they change once per zoom, not per
+ * event.
+ */
+public final class ZoomMetrics {
+
+    /** Where the off-hand item went (VIEW: FOV mode, nowhere), for give/restore counts */
+    public enum Path {
+        EMPTY, SLOT, MEMORY, VIEW
+    }
+
+    public final LatencyHistogram moveListener = new LatencyHistogram("move");
+    public final LatencyHistogram itemHeldListener = new LatencyHistogram("item_held");
+    public final LatencyHistogram inventoryGuard = new LatencyHistogram("inventory_guard");
+    public final LatencyHistogram stopDetector = new LatencyHistogram("stop_detector");
+    public final LatencyHistogram moveSampler = new LatencyHistogram("move_sampler");
+
+    private final LongAdder[] gives = newAdders(Path.values().length);
+    private final LongAdder[] restores = newAdders(Path.values().length);
+    private final LongAdder zoomsSinceBstats = new LongAdder();
+    private final LongAdder inventoryWrites = new LongAdder();
+
+    private volatile boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start timestamp for {@link #stop(LatencyHistogram, long)}, or 0 when disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    public void stop(LatencyHistogram histogram, long start) {
+        if (start != 0L) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public List<LatencyHistogram> listenerHistograms() {
+        return List.of(moveListener, itemHeldListener, inventoryGuard);
+    }
+
+    public void countGive(Path path) {
+        gives[path.ordinal()].increment();
+        zoomsSinceBstats.increment();
+    }
+
+    public void countRestore(Path path) {
+        restores[path.ordinal()].increment();
+    }
+
+    public long gives(Path path) {
+        return gives[path.ordinal()].sum();
+    }
+
+    public long restores(Path path) {
+        return restores[path.ordinal()].sum();
+    }
+
+    /**
+     * Counts the slots written by one give, restore or release.
+     */
+    public void countInventoryWrites(int written) {
+        if (written > 0) inventoryWrites.add(written);
+    }
+
+    public long inventoryWrites() {
+        return inventoryWrites.sum();
+    }
+
+    /**
+     * Zooms started since the previous call; bStats charts report per interval.
+     */
+    public int drainZoomsForBstats() {
+        return (int) Math.min(Integer.MAX_VALUE, zoomsSinceBstats.sumThenReset());
+    }
+
+    private static LongAdder[] newAdders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,192 @@
+package com.simpleplugins.simplezoom.nms;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Single access point for the few CraftBukkit/NMS internals SimpleZoom needs.
+ * Everything is resolved once when the class initializes (triggered by
+ * {@link #init(Logger)} on enable) and kept in static final method handles,
+ * so the JIT can treat them as constants and inline the calls.
+ * <p>
+ * Missing bindings are reported once on startup; callers check the
+ * {@code can*} methods instead of swallowing reflection errors per call.
+ */
+public final class NmsBridge {
+
+    /** (Player) -> ServerPlayer */
+    private static final MethodHandle GET_HANDLE;
+    /** (LivingEntity) -> net.minecraft ItemStack */
+    private static final MethodHandle GET_USE_ITEM;
+    /** (net.minecraft ItemStack) -> Item */
+    private static final MethodHandle GET_ITEM;
+    /** net.minecraft.world.item.Items.SPYGLASS */
+    private static final Object SPYGLASS_ITEM;
+    /** (ItemStack) -> CraftItemStack */
+    private static final MethodHandle AS_CRAFT_COPY;
+    /** (ItemStack) -> net.minecraft ItemStack */
+    private static final MethodHandle AS_NMS_COPY;
+    /** (net.minecraft Player) -> Inventory */
+    private static final MethodHandle GET_INVENTORY;
+    /** (Inventory, slot, net.minecraft ItemStack) -> void */
+    private static final MethodHandle SET_SLOT;
+
+    private static final List<String> MISSING = new ArrayList<>();
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        String craftPackage = Bukkit.getServer().getClass().getPackage().getName();
+
+        GET_HANDLE = bind("CraftPlayer#getHandle", () -> {
+            Class<?> craftPlayer = Class.forName(craftPackage + ".entity.CraftPlayer");
+            return lookup.unreflect(craftPlayer.getMethod("getHandle"))
+                    .asType(MethodType.methodType(Object.class, Player.class));
+        });
+        GET_USE_ITEM = bind("LivingEntity#getUseItem", () -> {
+            Class<?> livingEntity = Class.forName("net.minecraft.world.entity.LivingEntity");
+            return lookup.unreflect(livingEntity.getMethod("getUseItem"))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        });
+        GET_ITEM = bind("ItemStack#getItem", () -> {
+            Class<?> nmsItemStack = Class.forName("net.minecraft.world.item.ItemStack");
+            return lookup.unreflect(nmsItemStack.getMethod("getItem"))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        });
+        SPYGLASS_ITEM = bind("Items.SPYGLASS", () ->
+                Class.forName("net.minecraft.world.item.Items").getField("SPYGLASS").get(null));
+        AS_CRAFT_COPY = bind("CraftItemStack#asCraftCopy", () -> {
+            Class<?> craftItemStack = Class.forName(craftPackage + ".inventory.CraftItemStack");
+            return lookup.findStatic(craftItemStack, "asCraftCopy",
+                            MethodType.methodType(craftItemStack, ItemStack.class))
+                    .asType(MethodType.methodType(ItemStack.class, ItemStack.class));
+        });
+        AS_NMS_COPY = bind("CraftItemStack#asNMSCopy", () -> {
+            Class<?> craftItemStack = Class.forName(craftPackage + ".inventory.CraftItemStack");
+            return lookup.unreflect(craftItemStack.getMethod("asNMSCopy", ItemStack.class))
+                    .asType(MethodType.methodType(Object.class, ItemStack.class));
+        });
+        GET_INVENTORY = bind("Player#getInventory", () -> {
+            Class<?> nmsPlayer = Class.forName("net.minecraft.world.entity.player.Player");
+            return lookup.unreflect(nmsPlayer.getMethod("getInventory"))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        });
+        SET_SLOT = bind("Inventory#setItem", () -> {
+            Class<?> inventory = Class.forName("net.minecraft.world.entity.player.Inventory");
+            Class<?> nmsItemStack = Class.forName("net.minecraft.world.item.ItemStack");
+            return lookup.unreflect(inventory.getMethod("setItem", int.class, nmsItemStack))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+        });
+    }
+
+    private NmsBridge() {
+    }
+
+    /**
+     * Forces the bindings to resolve and logs what is available.
+     * Call once from onEnable, before anything else touches this class.
+     */
+    public static void init(Logger logger) {
+        if (MISSING.isEmpty()) {
+            logger.fine("NMS bridge: all bindings resolved");
+            return;
+        }
+        logger.warning("NMS bridge: could not bind " + String.join(", ", MISSING) + ".");
+        if (!canDetectUseItem()) {
+            logger.warning("NMS bridge: spyglass use cannot be polled on this server; remove-on-stop-zoom polling is unavailable.");
+        }
+        if (!canCopyItems()) {
+            logger.warning("NMS bridge: falling back to ItemStack#clone for off-hand item copies.");
+        }
+        if (!canSetSlots()) {
+            logger.warning("NMS bridge: zoom inventory changes are sent to the client once per slot write.");
+        }
+    }
+
+    /** True when the player's current use-item can be read through NMS. */
+    public static boolean canDetectUseItem() {
+        return GET_HANDLE != null && GET_USE_ITEM != null && GET_ITEM != null && SPYGLASS_ITEM != null;
+    }
+
+    public static boolean canCopyItems() {
+        return AS_CRAFT_COPY != null;
+    }
+
+    /**
+     * Returns true if the player is currently using (right-click holding) a spyglass.
+     * Compares the NMS item directly; no Bukkit copy of the stack is created.
+     */
+    public static boolean isUsingSpyglass(Player player) {
+        if (!canDetectUseItem()) return false;
+        try {
+            Object handle = (Object) GET_HANDLE.invokeExact(player);
+            Object useItem = (Object) GET_USE_ITEM.invokeExact(handle);
+            return useItem != null && (Object) GET_ITEM.invokeExact(useItem) == SPYGLASS_ITEM;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    public static boolean canSetSlots() {
+        return GET_HANDLE != null && GET_INVENTORY != null && SET_SLOT != null && AS_NMS_COPY != null;
+    }
+
+    /**
+     * Sets an inventory slot (numbered like {@link org.bukkit.inventory.PlayerInventory#getItem(int)})
+     * without the set-slot packet CraftBukkit sends for every write. The
+     * client gets the slot from the server's container sync at the end of
+     * the player's tick, which sends only what differs from what it last
+     * sent, so several writes to a slot in one tick cost one packet, or none
+     * if they cancel out.
+     *
+     * @return false if the slot could not be set this way; write it through the API instead
+     */
+    public static boolean setSlot(Player player, int slot, ItemStack item) {
+        if (!canSetSlots()) return false;
+        try {
+            Object handle = (Object) GET_HANDLE.invokeExact(player);
+            Object inventory = (Object) GET_INVENTORY.invokeExact(handle);
+            Object nmsItem = (Object) AS_NMS_COPY.invokeExact(item);
+            SET_SLOT.invokeExact(inventory, slot, nmsItem);
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Copies the item as a CraftItemStack so every data component (enchantments,
+     * banner patterns, custom data) survives. Falls back to {@link ItemStack#clone()}.
+     */
+    public static ItemStack copyItem(ItemStack item) {
+        if (canCopyItems()) {
+            try {
+                return (ItemStack) AS_CRAFT_COPY.invokeExact(item);
+            } catch (Throwable ignored) {
+                // fall through to the API copy
+            }
+        }
+        return item.clone();
+    }
+
+    private static <T> T bind(String name, Binding<T> binding) {
+        try {
+            return binding.resolve();
+        } catch (Throwable t) {
+            MISSING.add(name + " (" + t.getClass().getSimpleName() + ")");
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binding<T> {
+        T resolve() throws Throwable;
+    }
+}
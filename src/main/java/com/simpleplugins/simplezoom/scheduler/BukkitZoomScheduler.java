@@ -0,0 +1,49 @@
+package com.simpleplugins.simplezoom.scheduler;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * {@link ZoomScheduler} for Paper and Spigot: one main thread owns every player.
+ */
+final class BukkitZoomScheduler implements ZoomScheduler {
+
+    private final Plugin plugin;
+
+    BukkitZoomScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (player.isOnline()) {
+                task.run();
+            }
+        });
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        plugin.getServer().getScheduler().runTask(plugin, task);
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delay, long period) {
+        BukkitTask scheduled = plugin.getServer().getScheduler().runTaskTimer(plugin, task, delay, period);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delay, long period) {
+        BukkitTask scheduled = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, task, delay, period);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public Task runAsyncLater(Runnable task, long delay) {
+        BukkitTask scheduled = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, task, delay);
+        return scheduled::cancel;
+    }
+}
@@ -0,0 +1,51 @@
+package com.simpleplugins.simplezoom.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ZoomScheduler} for Folia: players are owned by region threads, so
+ * per-player work runs on each player's entity scheduler.
+ */
+final class FoliaZoomScheduler implements ZoomScheduler {
+
+    private final Plugin plugin;
+
+    FoliaZoomScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runForPlayer(Player player, Runnable task) {
+        player.getScheduler().run(plugin, scheduled -> task.run(), null);
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        plugin.getServer().getGlobalRegionScheduler().run(plugin, scheduled -> task.run());
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delay, long period) {
+        ScheduledTask scheduled = plugin.getServer().getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delay), period);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delay, long period) {
+        ScheduledTask scheduled = plugin.getServer().getAsyncScheduler()
+                .runAtFixedRate(plugin, t -> task.run(), delay * 50L, period * 50L, TimeUnit.MILLISECONDS);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public Task runAsyncLater(Runnable task, long delay) {
+        ScheduledTask scheduled = plugin.getServer().getAsyncScheduler()
+                .runDelayed(plugin, t -> task.run(), delay * 50L, TimeUnit.MILLISECONDS);
+        return scheduled::cancel;
+    }
+}
@@ -0,0 +1,127 @@
+package com.simpleplugins.simplezoom.scheduler;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs SimpleZoom's blocking work (HTTP, config and data files) on virtual
+ * threads owned by the plugin, so neither the server threads nor the
+ * scheduler's async workers wait on the network or the disk.
+ * <p>
+ * At most four jobs run at once; the rest wait for a
+ * permit on their own virtual thread, which costs nothing while parked.
+ * Delayed and repeating jobs use the {@link ZoomScheduler} timers only to
+ * hand the job over. Results come back to the global thread in one hop
+ * through {@link #supply(Supplier, Consumer)}.
+ * <p>
+ * Long-lived writer loops (restore journal, event trace, config watcher)
+ * keep their dedicated threads; this executor is for jobs that finish.
+ */
+public final class IoExecutor {
+
+    private static final int MAX_CONCURRENT = 4;
+
+    private final Plugin plugin;
+    private final ZoomScheduler scheduler;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("SimpleZoom-IO-", 0).factory());
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENT);
+
+    public IoExecutor(Plugin plugin, ZoomScheduler scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Runs the job on a virtual thread once a permit is free. Dropped after
+     * {@link #close(long, TimeUnit)}.
+     */
+    public void execute(Runnable job) {
+        try {
+            executor.execute(() -> runBounded(job));
+        } catch (RejectedExecutionException e) {
+            plugin.getLogger().fine("I/O job dropped during shutdown");
+        }
+    }
+
+    /**
+     * Runs the job off the server threads, then hands its result to the
+     * callback on the global thread on the next tick. The callback is skipped
+     * if the job throws or the plugin was disabled meanwhile.
+     */
+    public <T> void supply(Supplier<T> job, Consumer<T> onGlobal) {
+        execute(() -> {
+            T result = job.get();
+            if (!plugin.isEnabled()) return;
+            scheduler.runGlobal(() -> onGlobal.accept(result));
+        });
+    }
+
+    /**
+     * Runs the job once after the delay, in ticks.
+     */
+    public ZoomScheduler.Task later(Runnable job, long delay) {
+        return scheduler.runAsyncLater(() -> execute(job), delay);
+    }
+
+    /**
+     * Repeats the job. Delay and period are in ticks. A run still going when
+     * the next one is due is not overlapped; that run is skipped.
+     */
+    public ZoomScheduler.Task every(Runnable job, long delay, long period) {
+        Semaphore single = new Semaphore(1);
+        return scheduler.runAsyncTimer(() -> {
+            if (!single.tryAcquire()) return;
+            execute(() -> {
+                try {
+                    job.run();
+                } finally {
+                    single.release();
+                }
+            });
+        }, delay, period);
+    }
+
+    /**
+     * Stops taking jobs and waits up to the timeout for running and queued
+     * ones, such as a last data file write, to finish. Anything left after
+     * that is interrupted.
+     *
+     * @return true if every job finished in time
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(timeout, unit)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+        plugin.getLogger().warning("Background I/O did not finish within " + unit.toMillis(timeout) + " ms; interrupted it");
+        return false;
+    }
+
+    private void runBounded(Runnable job) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Background I/O job failed", e);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.simpleplugins.simplezoom.scheduler;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Schedules SimpleZoom's work on the right thread for the running server.
+ * On Folia per-player work goes to the player's entity scheduler and global
+ * work to the global region scheduler; elsewhere everything uses the classic
+ * Bukkit scheduler and its single main thread.
+ */
+public interface ZoomScheduler {
+
+    static ZoomScheduler create(Plugin plugin) {
+        return isFolia() ? new FoliaZoomScheduler(plugin) : new BukkitZoomScheduler(plugin);
+    }
+
+    static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the task on the thread that owns the player, on the next tick.
+     * Dropped if the player leaves first.
+     */
+    void runForPlayer(Player player, Runnable task);
+
+    /**
+     * Runs the task on the global thread (main thread outside Folia), on the next tick.
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Repeats the task on the global thread. Delay and period are in ticks.
+     */
+    Task runGlobalTimer(Runnable task, long delay, long period);
+
+    /**
+     * Repeats the task off the server threads. Delay and period are in ticks.
+     */
+    Task runAsyncTimer(Runnable task, long delay, long period);
+
+    /**
+     * Runs the task once off the server threads after the delay, in ticks.
+     */
+    Task runAsyncLater(Runnable task, long delay);
+
+    /**
+     * Handle for a scheduled task.
+     */
+    @FunctionalInterface
+    interface Task {
+        void cancel();
+    }
+}
@@ -0,0 +1,268 @@
+package com.simpleplugins.simplezoom.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-player zoom preferences: one byte per player in a file of fixed-size
+ * records (uuid as 2 longs, then the byte), so a change is rewritten in place.
+ * <p>
+ * Only the record positions are read on open. A player's byte is read on the
+ * async pre-login thread into the cache, and dropped again by
+ * {@link #unload(UUID)} when they quit, or by the next {@link #flush()} if
+ * their login never completed. The server thread only ever looks at the
+ * cache: a miss answers "no preference" and loads the byte in the background.
+ * Changes go to the cache at once and are written by {@link #flush()} in one
+ * batch with one fsync, from an async timer and on disable. The cache lock is
+ * never held during file I/O.
+ */
+public final class PreferenceStore {
+
+    /** No stored preference; the server defaults apply */
+    public static final byte NONE = 0;
+
+    private static final int RECORD_SIZE = 17;
+    /** How long a pre-login load waits for the player to join before it is dropped */
+    private static final long LOGIN_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Path file;
+    private final Executor executor;
+    private final Logger logger;
+    /** Record number by player, for every record written or being written; guarded by this */
+    private final Map<UUID, Integer> index = new HashMap<>();
+    /** Preferences of online players and pending logins; guarded by this */
+    private final Map<UUID, Byte> cache = new HashMap<>();
+    /** Loaded at pre-login, not joined yet: load time in nanos; guarded by this */
+    private final Map<UUID, Long> pendingLogins = new HashMap<>();
+    /** Players who joined and have not quit; guarded by this */
+    private final Set<UUID> online = new HashSet<>();
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+    /** Changes not yet written; an entry is removed only once its write succeeded */
+    private final Map<UUID, Byte> dirty = new ConcurrentHashMap<>();
+    /** Serializes flushes and close */
+    private final Object writeLock = new Object();
+
+    private volatile FileChannel channel;
+
+    /**
+     * @param executor runs the loads for cache misses; must not be the server thread
+     */
+    public PreferenceStore(Path file, Executor executor, Logger logger) {
+        this.file = file;
+        this.executor = executor;
+        this.logger = logger;
+    }
+
+    /**
+     * Opens the file and indexes its records. A torn last record is dropped.
+     */
+    public void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long records = opened.size() / RECORD_SIZE;
+        opened.truncate(records * RECORD_SIZE);
+        Map<UUID, Integer> read = new HashMap<>();
+        ByteBuffer keys = ByteBuffer.allocate(RECORD_SIZE * 512);
+        long position = 0;
+        int record = 0;
+        while (record < records) {
+            keys.clear();
+            int count = opened.read(keys, position);
+            if (count <= 0) break;
+            keys.flip();
+            while (keys.remaining() >= RECORD_SIZE && record < records) {
+                read.put(new UUID(keys.getLong(), keys.getLong()), record++);
+                keys.get();
+            }
+            position = (long) record * RECORD_SIZE;
+        }
+        synchronized (this) {
+            index.putAll(read);
+        }
+        channel = opened;
+    }
+
+    /**
+     * Reads the player's preference into the cache. Blocking; call from the
+     * pre-login thread. Dropped by the next {@link #flush()} if the player has
+     * not joined within a few minutes.
+     */
+    public void load(UUID playerId) {
+        synchronized (this) {
+            if (cache.containsKey(playerId) || channel == null) return;
+        }
+        byte value = read(playerId);
+        synchronized (this) {
+            cache.putIfAbsent(playerId, value);
+            if (!online.contains(playerId)) {
+                pendingLogins.put(playerId, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Marks the player as online, so their cached preference stays until
+     * {@link #unload(UUID)}.
+     */
+    public synchronized void joined(UUID playerId) {
+        online.add(playerId);
+        pendingLogins.remove(playerId);
+    }
+
+    /**
+     * Drops the player's cached preference when they leave. An unsaved change
+     * stays queued for {@link #flush()}.
+     */
+    public synchronized void unload(UUID playerId) {
+        online.remove(playerId);
+        pendingLogins.remove(playerId);
+        cache.remove(playerId);
+    }
+
+    /**
+     * Cached preference. Never touches the disk: on a miss it answers
+     * {@link #NONE} and loads the preference in the background for next time.
+     */
+    public byte get(UUID playerId) {
+        synchronized (this) {
+            Byte value = cache.get(playerId);
+            if (value != null) return value;
+        }
+        Byte pending = dirty.get(playerId);
+        if (pending != null) return pending;
+        if (channel != null && loading.add(playerId)) {
+            executor.execute(() -> {
+                try {
+                    byte value = read(playerId);
+                    synchronized (this) {
+                        if (online.contains(playerId)) {
+                            cache.putIfAbsent(playerId, value);
+                        }
+                    }
+                } finally {
+                    loading.remove(playerId);
+                }
+            });
+        }
+        return NONE;
+    }
+
+    public void set(UUID playerId, byte value) {
+        synchronized (this) {
+            cache.put(playerId, value);
+        }
+        dirty.put(playerId, value);
+    }
+
+    /**
+     * Drops logins that never completed, then writes every change since the
+     * last flush and syncs once. A change whose write fails stays queued for
+     * the next flush.
+     */
+    public void flush() {
+        expireLogins();
+        if (dirty.isEmpty()) return;
+        synchronized (writeLock) {
+            FileChannel channel = this.channel;
+            if (channel == null) return;
+            List<Map.Entry<UUID, Byte>> batch = new ArrayList<>(dirty.size());
+            List<Integer> numbers = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<UUID, Byte> change : dirty.entrySet()) {
+                    Integer number = index.get(change.getKey());
+                    if (number == null) {
+                        number = index.size();
+                        index.put(change.getKey(), number);
+                    }
+                    batch.add(Map.entry(change.getKey(), change.getValue()));
+                    numbers.add(number);
+                }
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    UUID playerId = batch.get(i).getKey();
+                    record.clear();
+                    record.putLong(playerId.getMostSignificantBits())
+                            .putLong(playerId.getLeastSignificantBits())
+                            .put(batch.get(i).getValue())
+                            .flip();
+                    long position = (long) numbers.get(i) * RECORD_SIZE;
+                    while (record.hasRemaining()) {
+                        position += channel.write(record, position);
+                    }
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Could not save zoom preferences; will retry", e);
+                return;
+            }
+            // a change made during the write stays dirty for the next flush
+            for (Map.Entry<UUID, Byte> written : batch) {
+                dirty.remove(written.getKey(), written.getValue());
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (writeLock) {
+            if (channel == null) return;
+            flush();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // everything was flushed
+            }
+            channel = null;
+        }
+    }
+
+    private synchronized void expireLogins() {
+        if (pendingLogins.isEmpty()) return;
+        long now = System.nanoTime();
+        pendingLogins.entrySet().removeIf(pending -> {
+            if (now - pending.getValue() < LOGIN_TIMEOUT_NANOS) return false;
+            cache.remove(pending.getKey());
+            return true;
+        });
+    }
+
+    /**
+     * Reads the player's byte from disk, or the unsaved change if there is
+     * one. Blocking; never call on the server thread.
+     */
+    private byte read(UUID playerId) {
+        Byte pending = dirty.get(playerId);
+        if (pending != null) return pending;
+        Integer record;
+        synchronized (this) {
+            record = index.get(playerId);
+        }
+        FileChannel channel = this.channel;
+        if (record == null || channel == null) return NONE;
+        ByteBuffer one = ByteBuffer.allocate(1);
+        try {
+            channel.read(one, (long) record * RECORD_SIZE + 16);
+            return one.position() == 1 ? one.get(0) : NONE;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read zoom preferences for " + playerId, e);
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.simpleplugins.simplezoom.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal of off-hand items that still have to be given back.
+ * A record is appended when a zoom starts and a removal record when it ends,
+ * so after a crash or /stop the file holds exactly the zooms that never ended.
+ * <p>
+ * Records are encoded on the calling thread and handed to a single writer
+ * thread, which writes everything queued so far and fsyncs once per batch
+ * (group commit); the server thread never waits on the disk. On open the
+ * file is replayed into memory and rewritten with only the live entries.
+ * If the writer dies on an I/O error, the journal logs it once and keeps
+ * tracking zooms in memory only.
+ * <p>
+ * Record layout: op (byte), uuid (2 longs), slot (int), item length (int), item bytes.
+ */
+public final class RestoreJournal {
+
+    public static final byte EMPTY_HAND = 1;
+    public static final byte IN_SLOT = 2;
+    public static final byte IN_MEMORY = 3;
+    private static final byte REMOVE = 4;
+    /** FOV-mode session; only appears in a {@link SessionHandoff}, never in the journal */
+    public static final byte VIEW_MODIFIER = 5;
+
+    /** Rewrite the file once this many bytes were appended since the last compaction */
+    private static final long COMPACT_THRESHOLD = 1L << 20;
+    private static final int MAX_ITEM_BYTES = 1 << 21;
+    private static final byte[] CLOSE = new byte[0];
+
+    private final Path file;
+    private final Logger logger;
+    private final Map<UUID, Entry> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+
+    private FileChannel channel;
+    private volatile Thread writer;
+    private long appendedSinceCompaction;
+
+    /**
+     * A zoom that has not ended yet.
+     *
+     * @param kind {@link #EMPTY_HAND}, {@link #IN_SLOT} or {@link #IN_MEMORY}
+     * @param slot parked slot for {@link #IN_SLOT}, otherwise -1
+     * @param item serialized item for {@link #IN_MEMORY}, otherwise empty
+     */
+    public record Entry(byte kind, int slot, byte[] item) {
+    }
+
+    public RestoreJournal(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Replays and compacts the journal, then starts the writer thread.
+     *
+     * @return number of pending restores found on disk
+     */
+    public int open() throws IOException {
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            replay();
+        }
+        compact();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writer = Thread.ofPlatform().daemon().name("SimpleZoom-Journal").start(this::writeLoop);
+        return pending.size();
+    }
+
+    public void record(UUID playerId, Entry entry) {
+        pending.put(playerId, entry);
+        if (writer != null) {
+            queue.add(encode(entry.kind, playerId, entry.slot, entry.item));
+        }
+    }
+
+    public void remove(UUID playerId) {
+        if (pending.remove(playerId) != null && writer != null) {
+            queue.add(encode(REMOVE, playerId, -1, new byte[0]));
+        }
+    }
+
+    /**
+     * Returns the pending restore for the player without removing it, or null.
+     */
+    public Entry get(UUID playerId) {
+        return pending.get(playerId);
+    }
+
+    /**
+     * Flushes everything queued and stops the writer, waiting at most the given time.
+     */
+    public void close(long timeout, TimeUnit unit) {
+        Thread thread = writer;
+        if (thread == null) return;
+        writer = null;
+        queue.add(CLOSE);
+        try {
+            thread.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warning("Restore journal writer did not finish in time; the last zoom changes may be replayed on next start.");
+        }
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        boolean closing = false;
+        try {
+            while (!closing) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+
+                for (byte[] record : batch) {
+                    if (record == CLOSE) {
+                        closing = true;
+                        continue;
+                    }
+                    writeFully(channel, record);
+                    appendedSinceCompaction += record.length;
+                }
+                channel.force(false);
+                batch.clear();
+
+                if (!closing && appendedSinceCompaction > COMPACT_THRESHOLD) {
+                    channel.close();
+                    compact();
+                    channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.severe("Restore journal writer was interrupted; zooms are no longer journaled");
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Restore journal write failed; zooms are no longer journaled and pending off-hand restores may not survive a crash", e);
+        } finally {
+            if (!closing) {
+                // stop record() and remove() queueing for a writer that is gone
+                writer = null;
+                queue.clear();
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing left to flush
+            }
+        }
+    }
+
+    private void replay() throws IOException {
+        Map<UUID, Entry> replayed = new HashMap<>();
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    UUID playerId = new UUID(in.readLong(), in.readLong());
+                    int slot = in.readInt();
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_ITEM_BYTES) {
+                        logger.warning("Restore journal has a corrupt record; ignoring the rest of the file.");
+                        break;
+                    }
+                    byte[] item = new byte[length];
+                    in.readFully(item);
+                    if (op == REMOVE) {
+                        replayed.remove(playerId);
+                    } else {
+                        replayed.put(playerId, new Entry(op, slot, item));
+                    }
+                } catch (EOFException e) {
+                    logger.warning("Restore journal ends with a torn record (crash during write); ignoring it.");
+                    break;
+                }
+            }
+        }
+        pending.putAll(replayed);
+    }
+
+    /**
+     * Rewrites the journal with only the live entries. The new file is synced
+     * and moved over the old one atomically.
+     */
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<UUID, Entry> e : pending.entrySet()) {
+                Entry entry = e.getValue();
+                writeFully(out, encode(entry.kind, e.getKey(), entry.slot, entry.item));
+            }
+            out.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        appendedSinceCompaction = 0;
+    }
+
+    private static void writeFully(FileChannel out, byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static byte[] encode(byte op, UUID playerId, int slot, byte[] item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(29 + item.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(op);
+            out.writeLong(playerId.getMostSignificantBits());
+            out.writeLong(playerId.getLeastSignificantBits());
+            out.writeInt(slot);
+            out.writeInt(item.length);
+            out.write(item);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.simpleplugins.simplezoom.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Snapshot of the session table passed from a disabling plugin instance to
+ * the next one on a plugin reload or hot swap, so zooming players keep their
+ * spyglass and nobody's inventory is touched. The file is deleted as soon as
+ * it is read. Entries use the journal's format; the journal itself keeps its
+ * records, so a snapshot that is never picked up loses nothing.
+ * <p>
+ * Layout: magic (int), version (byte), count (int), then per session:
+ * uuid (2 longs), kind (byte), slot (int), item length (int), item bytes.
+ */
+public final class SessionHandoff {
+
+    private static final int MAGIC = 0x535A4846; // "SZHF"
+    private static final byte VERSION = 1;
+    private static final int MAX_ITEM_BYTES = 1 << 21;
+
+    private SessionHandoff() {
+    }
+
+    public static void write(Path file, Map<UUID, RestoreJournal.Entry> sessions) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream raw = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(sessions.size());
+            for (Map.Entry<UUID, RestoreJournal.Entry> e : sessions.entrySet()) {
+                RestoreJournal.Entry entry = e.getValue();
+                out.writeLong(e.getKey().getMostSignificantBits());
+                out.writeLong(e.getKey().getLeastSignificantBits());
+                out.writeByte(entry.kind());
+                out.writeInt(entry.slot());
+                out.writeInt(entry.item().length);
+                out.write(entry.item());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads and deletes the snapshot.
+     *
+     * @return the handed-off sessions, empty if there is no snapshot
+     */
+    public static Map<UUID, RestoreJournal.Entry> take(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Unrecognized session handoff file");
+            }
+            int count = in.readInt();
+            Map<UUID, RestoreJournal.Entry> sessions = new HashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                UUID playerId = new UUID(in.readLong(), in.readLong());
+                byte kind = in.readByte();
+                int slot = in.readInt();
+                int length = in.readInt();
+                if (length < 0 || length > MAX_ITEM_BYTES) {
+                    throw new IOException("Corrupt session handoff file");
+                }
+                byte[] item = new byte[length];
+                in.readFully(item);
+                sessions.put(playerId, new RestoreJournal.Entry(kind, slot, item));
+            }
+            return sessions;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.simpleplugins.simplezoom.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Reads a trace written by {@link TraceRecorder}, one event at a time. A torn
+ * last record (the server died mid-write) ends the trace.
+ */
+public final class TraceReader implements Closeable {
+
+    /**
+     * One recorded event. {@code tick} counts from the start of the trace;
+     * {@code player} is the number given by the {@link Player} event that
+     * introduced the player.
+     */
+    public sealed interface Event permits Player, Command, Move, Held, Click, Drag, UseStart, UseStop, Quit {
+        int tick();
+
+        int player();
+    }
+
+    public record Player(int tick, int player, UUID playerId) implements Event {
+    }
+
+    /**
+     * A /zoom command.
+     *
+     * @param offHand one of the {@code OFF_HAND_} constants of {@link TraceRecorder}
+     * @param args everything after the command label, possibly empty
+     */
+    public record Command(int tick, int player, byte offHand, String args) implements Event {
+    }
+
+    /** A move into another block, with the new position */
+    public record Move(int tick, int player, double x, double y, double z) implements Event {
+    }
+
+    public record Held(int tick, int player, int previousSlot, int newSlot) implements Event {
+    }
+
+    /**
+     * @param click {@code ClickType} name
+     * @param action {@code InventoryAction} name
+     */
+    public record Click(int tick, int player, int rawSlot, int hotbarButton, String click, String action)
+            implements Event {
+    }
+
+    public record Drag(int tick, int player, boolean single, int[] rawSlots) implements Event {
+    }
+
+    public record UseStart(int tick, int player, boolean offHand) implements Event {
+    }
+
+    public record UseStop(int tick, int player, int ticksHeld) implements Event {
+    }
+
+    public record Quit(int tick, int player) implements Event {
+    }
+
+    private final DataInputStream in;
+    private final long startMillis;
+
+    public TraceReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        try {
+            if (in.readInt() != TraceRecorder.MAGIC || in.readByte() != TraceRecorder.VERSION) {
+                throw new IOException("Not a SimpleZoom trace: " + file.getFileName());
+            }
+            this.startMillis = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /** Wall-clock time the recording started, in epoch millis */
+    public long startMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Returns the next event, or null at the end of the trace.
+     */
+    public Event next() throws IOException {
+        byte type;
+        try {
+            type = in.readByte();
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            int tick = in.readInt();
+            int player = in.readInt();
+            return switch (type) {
+                case TraceRecorder.PLAYER -> new Player(tick, player, new UUID(in.readLong(), in.readLong()));
+                case TraceRecorder.COMMAND -> new Command(tick, player, in.readByte(), readText());
+                case TraceRecorder.MOVE -> new Move(tick, player, in.readFloat(), in.readFloat(), in.readFloat());
+                case TraceRecorder.HELD -> new Held(tick, player, in.readByte(), in.readByte());
+                case TraceRecorder.CLICK -> new Click(tick, player, in.readShort(), in.readByte(), readText(), readText());
+                case TraceRecorder.DRAG -> {
+                    boolean single = in.readByte() != 0;
+                    int[] rawSlots = new int[in.readUnsignedByte()];
+                    for (int i = 0; i < rawSlots.length; i++) {
+                        rawSlots[i] = in.readShort();
+                    }
+                    yield new Drag(tick, player, single, rawSlots);
+                }
+                case TraceRecorder.USE_START -> new UseStart(tick, player, in.readByte() != 0);
+                case TraceRecorder.USE_STOP -> new UseStop(tick, player, in.readInt());
+                case TraceRecorder.QUIT -> new Quit(tick, player);
+                default -> throw new IOException("Corrupt trace: unknown record type " + type);
+            };
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private String readText() throws IOException {
+        int length = in.readUnsignedShort();
+        if (length > TraceRecorder.MAX_TEXT_BYTES) {
+            throw new IOException("Corrupt trace: text of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
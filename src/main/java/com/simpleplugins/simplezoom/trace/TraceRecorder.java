@@ -0,0 +1,254 @@
+package com.simpleplugins.simplezoom.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the zoom-relevant event stream to a compact binary trace that
+ * {@link TraceReader} reads back for replay.
+ * <p>
+ * Records are encoded on the calling thread straight into one of a few
+ * preallocated buffers; a full buffer, or the current one after a second
+ * without filling, is handed to a writer thread that writes it with a
+ * {@link FileChannel}. Moves and slot changes, the bulk of a trace, are
+ * recorded without allocating, and recording never waits on the disk. If the writer falls behind and no buffer is free, records are
+ * dropped and counted rather than stalling the server.
+ * <p>
+ * Layout: magic (int), version (byte), start time in epoch millis (long),
+ * then records of type (byte), tick since start (int), player number (int)
+ * and a type-specific payload; see {@link TraceReader}. A player is numbered
+ * by a {@link #PLAYER} record with their uuid before their first event, and
+ * again after they quit and come back.
+ */
+public final class TraceRecorder {
+
+    static final int MAGIC = 0x535A5452; // "SZTR"
+    static final byte VERSION = 1;
+
+    static final byte PLAYER = 1;
+    static final byte COMMAND = 2;
+    static final byte MOVE = 3;
+    static final byte HELD = 4;
+    static final byte CLICK = 5;
+    static final byte DRAG = 6;
+    static final byte USE_START = 7;
+    static final byte USE_STOP = 8;
+    static final byte QUIT = 9;
+
+    /** Off-hand state sent with a command, so a replay can rebuild it */
+    public static final byte OFF_HAND_EMPTY = 0;
+    public static final byte OFF_HAND_ITEM = 1;
+    public static final byte OFF_HAND_ITEM_FULL_INVENTORY = 2;
+
+    static final int MAX_TEXT_BYTES = 255;
+    private static final int MAX_DRAG_SLOTS = 64;
+    /** Upper bound of one encoded record, drag with every slot included */
+    private static final int MAX_RECORD = 9 + 2 + MAX_DRAG_SLOTS * 2 + 2 * (2 + MAX_TEXT_BYTES);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BUFFERS = 4;
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+    private final Path file;
+    private final Logger logger;
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFERS + 1);
+    /** Player numbers; guarded by this, like everything below */
+    private final Map<UUID, Integer> players = new HashMap<>();
+
+    private ByteBuffer active;
+    private int startTick;
+    private int nextPlayer;
+    private long dropped;
+    private boolean closed;
+    private Thread writer;
+
+    public TraceRecorder(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Creates the trace file and starts the writer thread.
+     *
+     * @param currentTick server tick that becomes tick 0 of the trace
+     */
+    public synchronized void start(int currentTick) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        for (int i = 0; i < BUFFERS; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        active = free.poll();
+        active.putInt(MAGIC).put(VERSION).putLong(System.currentTimeMillis());
+        startTick = currentTick;
+        writer = Thread.ofPlatform().daemon().name("SimpleZoom-Trace").start(() -> writeLoop(channel));
+    }
+
+    public synchronized void command(UUID playerId, int tick, byte offHand, String args) {
+        if (!begin(COMMAND, playerId, tick)) return;
+        active.put(offHand);
+        putText(args);
+    }
+
+    public synchronized void move(UUID playerId, int tick, double x, double y, double z) {
+        if (!begin(MOVE, playerId, tick)) return;
+        active.putFloat((float) x).putFloat((float) y).putFloat((float) z);
+    }
+
+    public synchronized void held(UUID playerId, int tick, int previousSlot, int newSlot) {
+        if (!begin(HELD, playerId, tick)) return;
+        active.put((byte) previousSlot).put((byte) newSlot);
+    }
+
+    public synchronized void click(UUID playerId, int tick, int rawSlot, int hotbarButton, String click, String action) {
+        if (!begin(CLICK, playerId, tick)) return;
+        active.putShort((short) rawSlot).put((byte) hotbarButton);
+        putText(click);
+        putText(action);
+    }
+
+    public synchronized void drag(UUID playerId, int tick, boolean single, int[] rawSlots) {
+        if (!begin(DRAG, playerId, tick)) return;
+        int count = Math.min(rawSlots.length, MAX_DRAG_SLOTS);
+        active.put((byte) (single ? 1 : 0)).put((byte) count);
+        for (int i = 0; i < count; i++) {
+            active.putShort((short) rawSlots[i]);
+        }
+    }
+
+    public synchronized void useStart(UUID playerId, int tick, boolean offHand) {
+        if (!begin(USE_START, playerId, tick)) return;
+        active.put((byte) (offHand ? 1 : 0));
+    }
+
+    public synchronized void useStop(UUID playerId, int tick, int ticksHeld) {
+        if (!begin(USE_STOP, playerId, tick)) return;
+        active.putInt(ticksHeld);
+    }
+
+    public synchronized void quit(UUID playerId, int tick) {
+        if (begin(QUIT, playerId, tick)) {
+            players.remove(playerId);
+        }
+    }
+
+    /**
+     * Writes what is buffered and stops the writer, waiting at most the given time.
+     */
+    public void close(long timeout, TimeUnit unit) {
+        Thread thread;
+        long lost;
+        synchronized (this) {
+            if (closed || writer == null) return;
+            closed = true;
+            thread = writer;
+            if (active != null && active.position() > 0) {
+                full.add(active);
+            }
+            active = null;
+            full.add(CLOSE);
+            lost = dropped;
+        }
+        try {
+            thread.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lost > 0) {
+            logger.warning("Trace writer fell behind; " + lost + " event(s) are missing from " + file.getFileName());
+        }
+    }
+
+    /**
+     * Makes room for one record and writes its header, numbering the player
+     * first if needed.
+     *
+     * @return false if the record has to be dropped
+     */
+    private boolean begin(byte type, UUID playerId, int tick) {
+        if (closed || active == null || !ensureRoom(2 * MAX_RECORD)) {
+            dropped++;
+            return false;
+        }
+        int relativeTick = tick - startTick;
+        Integer number = players.get(playerId);
+        if (number == null) {
+            number = nextPlayer++;
+            players.put(playerId, number);
+            active.put(PLAYER).putInt(relativeTick).putInt(number)
+                    .putLong(playerId.getMostSignificantBits())
+                    .putLong(playerId.getLeastSignificantBits());
+        }
+        active.put(type).putInt(relativeTick).putInt(number);
+        return true;
+    }
+
+    private boolean ensureRoom(int bytes) {
+        if (active.remaining() >= bytes) return true;
+        ByteBuffer next = free.poll();
+        if (next == null) return false;
+        full.add(active);
+        active = next;
+        return true;
+    }
+
+    private void putText(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_TEXT_BYTES);
+        active.putShort((short) length).put(bytes, 0, length);
+    }
+
+    /**
+     * Hands over the current buffer if it holds anything and a spare one is
+     * free, so a quiet server still gets its events on disk within a second.
+     */
+    private synchronized ByteBuffer takeIdleBuffer() {
+        if (closed || active == null || active.position() == 0) return null;
+        ByteBuffer next = free.poll();
+        if (next == null) return null;
+        ByteBuffer taken = active;
+        active = next;
+        return taken;
+    }
+
+    private void writeLoop(FileChannel channel) {
+        try (channel) {
+            while (true) {
+                ByteBuffer buffer = full.poll(1, TimeUnit.SECONDS);
+                if (buffer == null) {
+                    buffer = takeIdleBuffer();
+                    if (buffer == null) continue;
+                }
+                if (buffer == CLOSE) break;
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+                free.add(buffer);
+            }
+            channel.force(false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write trace " + file.getFileName(), e);
+        }
+    }
+}
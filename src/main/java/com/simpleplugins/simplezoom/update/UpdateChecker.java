@@ -1,73 +1,237 @@
 package com.simpleplugins.simplezoom.update;
 
+import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.ZoomSettings;
+import com.simpleplugins.simplezoom.scheduler.ZoomScheduler;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Checks Modrinth API for new plugin versions and notifies console and ops.
+ * <p>
+ * The last answer is kept in {@code update-cache.properties} with its ETag:
+ * a restart within the check interval (6 hours when only checking on startup)
+ * uses the cached result without any request, and an older cache is
+ * revalidated with If-None-Match, so an unchanged version list costs a 304.
+ * With update-check-interval set the check repeats while the server runs;
+ * failures are retried with exponential backoff capped at the interval.
  */
 public final class UpdateChecker {
 
-    private static final String MODRINTH_API = "https://api.modrinth.com/v2/project/simple-zoom%2B/version";
+    private static final String VERSIONS_PATH = "/project/simple-zoom%2B/version";
     private static final String MODRINTH_PROJECT_URL = "https://modrinth.com/plugin/simple-zoom+";
-    private static final Pattern VERSION_NUMBER_PATTERN = Pattern.compile("\"version_number\"\\s*:\\s*\"([^\"]+)\"");
+    private static final long STARTUP_CACHE_MILLIS = Duration.ofHours(6).toMillis();
+    private static final long FIRST_RETRY_TICKS = 5 * 60 * 20L;
+    private static final long TICKS_PER_HOUR = 72_000L;
 
-    private UpdateChecker() {}
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final SimpleZoom plugin;
+    private final Path cacheFile;
+
+    private ZoomScheduler.Task nextCheck;
+    private int failures;
+    private boolean startupCheckDone;
+    /** API URL and interval the checks are scheduled for; null while checks are off */
+    private String scheduledUrl;
+    private int scheduledInterval;
+    /** Newest version ops were told about, so rechecks do not repeat the notice */
+    private String notified;
+
+    public UpdateChecker(SimpleZoom plugin) {
+        this.plugin = plugin;
+        this.cacheFile = plugin.getDataFolder().toPath().resolve("update-cache.properties");
+    }
 
     /**
-     * Schedules an async check. If a newer version is found, shows a yellow message
-     * in console and to all online operators, with a clickable link to Modrinth.
+     * Schedules a check on the I/O executor unless one is already pending. If
+     * a newer version is found, shows a yellow message in console and to all
+     * online operators, with a clickable link to Modrinth.
      */
-    public static void check(JavaPlugin plugin) {
-        if (!plugin.getConfig().getBoolean("check-updates", true)) {
+    public synchronized void start() {
+        ZoomSettings settings = plugin.getSettings();
+        if (nextCheck != null || !settings.checkUpdates()) {
             return;
         }
+        scheduledUrl = settings.updateApiUrl();
+        scheduledInterval = settings.updateCheckIntervalHours();
+        nextCheck = plugin.getIoExecutor().later(this::runCheck, 1L);
+    }
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                String latest = fetchLatestVersion();
-                if (latest == null) return;
+    /**
+     * Applies reloaded settings. Checks again only if checking was just turned
+     * on or the API URL or interval changed; otherwise the current schedule,
+     * or the single startup check, stands.
+     */
+    public synchronized void reload() {
+        ZoomSettings settings = plugin.getSettings();
+        if (!settings.checkUpdates()) {
+            stop();
+            scheduledUrl = null;
+            return;
+        }
+        if (settings.updateApiUrl().equals(scheduledUrl)
+                && settings.updateCheckIntervalHours() == scheduledInterval) {
+            return;
+        }
+        stop();
+        start();
+    }
 
-                String current = plugin.getDescription().getVersion();
-                if (!isNewerVersion(latest, current)) return;
+    public synchronized void stop() {
+        if (nextCheck != null) {
+            nextCheck.cancel();
+            nextCheck = null;
+        }
+    }
 
+    private void runCheck() {
+        ZoomSettings settings = plugin.getSettings();
+        synchronized (this) {
+            nextCheck = null;
+        }
+        if (!settings.checkUpdates() || !plugin.isEnabled()) {
+            return;
+        }
+
+        long intervalTicks = settings.updateCheckIntervalHours() * TICKS_PER_HOUR;
+        long delay;
+        try {
+            String latest = fetchLatestVersion(settings, !startupCheckDone);
+            startupCheckDone = true;
+            failures = 0;
+            delay = intervalTicks;
+            if (latest != null && !latest.equals(notified)
+                    && isNewerVersion(latest, plugin.getDescription().getVersion())) {
+                notified = latest;
                 String projectUrl = MODRINTH_PROJECT_URL;
-                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                plugin.getZoomScheduler().runGlobal(() -> {
                     sendConsoleMessage(plugin, projectUrl);
-                    sendMessageToOps(projectUrl);
+                    sendMessageToOps(plugin, projectUrl);
                 });
-            } catch (Exception e) {
-                plugin.getLogger().fine("Update check failed: " + e.getMessage());
             }
-        });
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().fine("Update check failed: " + e.getMessage());
+            delay = Math.min(FIRST_RETRY_TICKS << Math.min(failures++, 16), intervalTicks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (intervalTicks > 0) {
+            // Spread instances restarted together so they do not recheck in lockstep
+            long jitter = ThreadLocalRandom.current().nextLong(delay / 10 + 1);
+            synchronized (this) {
+                if (nextCheck == null && plugin.isEnabled()) {
+                    nextCheck = plugin.getIoExecutor().later(this::runCheck, delay + jitter);
+                }
+            }
+        }
     }
 
-    private static String fetchLatestVersion() throws Exception {
-        HttpClient client = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .build();
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(MODRINTH_API))
-                .header("User-Agent", "SimpleZoom-UpdateChecker")
-                .GET()
-                .build();
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) return null;
-
-        Matcher matcher = VERSION_NUMBER_PATTERN.matcher(response.body());
-        return matcher.find() ? matcher.group(1) : null;
+    /**
+     * Returns the newest release. On startup a fresh enough cache is used as
+     * is; otherwise the cached answer is revalidated with a conditional request.
+     */
+    private String fetchLatestVersion(ZoomSettings settings, boolean allowCached)
+            throws IOException, InterruptedException {
+        String url = settings.updateApiUrl().replaceAll("/+$", "") + VERSIONS_PATH;
+        long maxAge = settings.updateCheckIntervalHours() > 0
+                ? Duration.ofHours(settings.updateCheckIntervalHours()).toMillis() : STARTUP_CACHE_MILLIS;
+        Properties cache = loadCache();
+        boolean sameUrl = url.equals(cache.getProperty("url"));
+        String cachedLatest = sameUrl ? cache.getProperty("latest") : null;
+        long checkedAt = 0;
+        if (sameUrl) {
+            try {
+                checkedAt = Long.parseLong(cache.getProperty("checked", "0"));
+            } catch (NumberFormatException ignored) {
+                // treat as stale
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (allowCached && cachedLatest != null && now - checkedAt < maxAge) {
+            return cachedLatest;
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header("User-Agent", "SimpleZoom-UpdateChecker/" + plugin.getDescription().getVersion())
+                .GET();
+        String etag = sameUrl ? cache.getProperty("etag") : null;
+        if (etag != null && cachedLatest != null) {
+            request.header("If-None-Match", etag);
+        }
+
+        HttpResponse<InputStream> response = CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        String latest;
+        try (InputStream body = response.body()) {
+            switch (response.statusCode()) {
+                case 304 -> latest = cachedLatest;
+                case 200 -> {
+                    try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+                        latest = VersionListParser.firstRelease(reader);
+                    }
+                    etag = response.headers().firstValue("ETag").orElse(null);
+                }
+                default -> throw new IOException("HTTP " + response.statusCode() + " from " + url);
+            }
+        }
+        if (latest != null) {
+            saveCache(url, latest, etag, now);
+        }
+        return latest;
+    }
+
+    private Properties loadCache() {
+        Properties cache = new Properties();
+        if (Files.exists(cacheFile)) {
+            try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                cache.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                cache.clear();
+            }
+        }
+        return cache;
+    }
+
+    private void saveCache(String url, String latest, String etag, long checkedAt) {
+        Properties cache = new Properties();
+        cache.setProperty("url", url);
+        cache.setProperty("latest", latest);
+        cache.setProperty("checked", Long.toString(checkedAt));
+        if (etag != null) {
+            cache.setProperty("etag", etag);
+        }
+        try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+            cache.store(writer, "SimpleZoom update check cache");
+        } catch (IOException e) {
+            plugin.getLogger().fine("Could not write update cache: " + e.getMessage());
+        }
     }
 
     private static boolean isNewerVersion(String remote, String current) {
@@ -102,7 +266,7 @@ public final class UpdateChecker {
         plugin.getLogger().info(yellow + "> Click here to download it: " + url + reset);
     }
 
-    private static void sendMessageToOps(String projectUrl) {
+    private static void sendMessageToOps(SimpleZoom plugin, String projectUrl) {
         Component line1 = Component.text("> A new version of Simple Zoom is available").color(NamedTextColor.YELLOW);
         Component line2 = Component.text("> ")
                 .color(NamedTextColor.YELLOW)
@@ -111,11 +275,13 @@ public final class UpdateChecker {
                         .decorate(net.kyori.adventure.text.format.TextDecoration.UNDERLINED)
                         .clickEvent(ClickEvent.openUrl(projectUrl)));
 
-        Bukkit.getOnlinePlayers().stream()
-                .filter(p -> p.hasPermission("szoom.reload") || p.isOp())
-                .forEach(p -> {
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            plugin.getZoomScheduler().runForPlayer(p, () -> {
+                if (p.hasPermission("szoom.reload") || p.isOp()) {
                     p.sendMessage(line1);
                     p.sendMessage(line2);
-                });
+                }
+            });
+        }
     }
 }
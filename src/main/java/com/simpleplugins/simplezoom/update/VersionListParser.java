@@ -0,0 +1,126 @@
+package com.simpleplugins.simplezoom.update;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming reader for Modrinth's version list (a JSON array of version
+ * objects, newest first). Only the top-level fields of each version are
+ * looked at, nested arrays and objects are skipped character by character,
+ * and reading stops at the end of the first release, so the rest of the
+ * response is never downloaded into memory.
+ */
+final class VersionListParser {
+
+    private final Reader in;
+    private int peeked = -2;
+
+    private VersionListParser(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the version_number of the first version whose version_type is
+     * "release" (or absent), or null if there is none.
+     */
+    static String firstRelease(Reader in) throws IOException {
+        return new VersionListParser(in).scan();
+    }
+
+    private String scan() throws IOException {
+        int depth = 0;
+        String number = null;
+        String type = null;
+        int c;
+        while ((c = next()) != -1) {
+            switch (c) {
+                case '{', '[' -> depth++;
+                case ']' -> depth--;
+                case '}' -> {
+                    if (depth == 2) {
+                        if (number != null && (type == null || "release".equals(type))) {
+                            return number;
+                        }
+                        number = null;
+                        type = null;
+                    }
+                    depth--;
+                }
+                case '"' -> {
+                    String text = readString();
+                    if (depth != 2 || skipWhitespace() != ':') break;
+                    next();
+                    if (skipWhitespace() != '"') break;
+                    next();
+                    String value = readString();
+                    if ("version_number".equals(text)) {
+                        number = value;
+                    } else if ("version_type".equals(text)) {
+                        type = value;
+                    }
+                }
+                default -> {
+                    // commas, colons, numbers, literals
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Reads up to the closing quote; the opening one was already consumed. */
+    private String readString() throws IOException {
+        StringBuilder out = new StringBuilder();
+        int c;
+        while ((c = next()) != -1 && c != '"') {
+            if (c == '\\') {
+                c = next();
+                switch (c) {
+                    case 'n' -> out.append('\n');
+                    case 't' -> out.append('\t');
+                    case 'r' -> out.append('\r');
+                    case 'u' -> {
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) {
+                            hex[i] = (char) next();
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IOException("Bad unicode escape in version list");
+                        }
+                    }
+                    case -1 -> throw new IOException("Version list ends inside a string");
+                    default -> out.append((char) c);
+                }
+            } else {
+                out.append((char) c);
+            }
+        }
+        return out.toString();
+    }
+
+    /** Skips whitespace and returns the next character without consuming it. */
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && Character.isWhitespace(c)) {
+            next();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private int next() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
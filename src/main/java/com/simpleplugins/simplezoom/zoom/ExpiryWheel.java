@@ -0,0 +1,118 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for session timeouts (max-zoom-duration, idle-timeout).
+ * <p>
+ * Each slot holds a doubly linked list threaded through the sessions
+ * themselves, so scheduling and cancelling cost O(1) and allocate nothing.
+ * {@link #advance(Consumer)} moves one tick forward and walks a single slot:
+ * sessions due now are expired, sessions a whole turn or more away stay
+ * where they are. A pass costs O(expired) plus the rare far-future session
+ * sharing the slot, instead of a scan over every zooming player.
+ * <p>
+ * Time is the wheel's own tick count, advanced only while its timer runs, so
+ * a delay is always measured from when it was scheduled. Synchronized: on
+ * Folia sessions start and end on region threads while the global thread
+ * advances the wheel.
+ */
+final class ExpiryWheel {
+
+    private static final int SLOTS = 512;
+    private static final int MASK = SLOTS - 1;
+
+    private final ZoomSession[] heads = new ZoomSession[SLOTS];
+    /** Reused between passes; only touched by the advancing thread */
+    private final List<ZoomSession> due = new ArrayList<>();
+    private long now;
+    private int size;
+
+    synchronized long now() {
+        return now;
+    }
+
+    /**
+     * (Re)schedules the session to expire after the delay, in ticks (at least one).
+     */
+    synchronized void schedule(ZoomSession session, long delay) {
+        unlink(session);
+        session.expiresAt = now + Math.max(1L, delay);
+        int slot = (int) (session.expiresAt & MASK);
+        ZoomSession head = heads[slot];
+        session.wheelPrev = null;
+        session.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = session;
+        }
+        heads[slot] = session;
+        session.inWheel = true;
+        size++;
+    }
+
+    synchronized void remove(ZoomSession session) {
+        unlink(session);
+    }
+
+    synchronized void clear() {
+        for (int i = 0; i < SLOTS; i++) {
+            for (ZoomSession s = heads[i]; s != null; ) {
+                ZoomSession next = s.wheelNext;
+                s.wheelPrev = null;
+                s.wheelNext = null;
+                s.inWheel = false;
+                s = next;
+            }
+            heads[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves one tick forward and hands every session due now to the callback,
+     * already removed from the wheel. The callback runs outside the lock and
+     * may schedule the session again.
+     */
+    void advance(Consumer<ZoomSession> expired) {
+        synchronized (this) {
+            now++;
+            if (size == 0) return;
+            for (ZoomSession s = heads[(int) (now & MASK)]; s != null; ) {
+                ZoomSession next = s.wheelNext;
+                if (s.expiresAt <= now) {
+                    unlink(s);
+                    due.add(s);
+                }
+                s = next;
+            }
+        }
+        if (due.isEmpty()) return;
+        try {
+            for (ZoomSession session : due) {
+                expired.accept(session);
+            }
+        } finally {
+            due.clear();
+        }
+    }
+
+    private void unlink(ZoomSession session) {
+        if (!session.inWheel) return;
+        ZoomSession prev = session.wheelPrev;
+        ZoomSession next = session.wheelNext;
+        if (prev != null) {
+            prev.wheelNext = next;
+        } else {
+            heads[(int) (session.expiresAt & MASK)] = next;
+        }
+        if (next != null) {
+            next.wheelPrev = prev;
+        }
+        session.wheelPrev = null;
+        session.wheelNext = null;
+        session.inWheel = false;
+        size--;
+    }
+}
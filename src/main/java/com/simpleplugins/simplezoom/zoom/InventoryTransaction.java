@@ -0,0 +1,120 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import com.simpleplugins.simplezoom.nms.NmsBridge;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+/**
+ * Slot changes for one give, restore or release, staged and then written in
+ * one go before the caller returns. Reads through the transaction see the
+ * staged state. {@link #apply()} writes only the slots whose staged item
+ * differs from what the inventory holds.
+ * <p>
+ * Never kept past the call that created it: the inventory is only read and
+ * written on the player's own thread in between, so nothing can change a
+ * slot behind its back.
+ * <p>
+ * The server-side inventory always changes at once. Only the client update
+ * is combined: while the player has no other container open, slots are set
+ * through {@link NmsBridge#setSlot} and reach the client with the server's
+ * own end-of-tick container sync, which compares against what the client
+ * last saw. Every write to a slot in one tick, from any zoom or trigger,
+ * costs at most one packet, and a give and remove in the same tick none.
+ * <p>
+ * Slots use {@link PlayerInventory#getItem(int)} numbering, with
+ * {@link #OFF_HAND} for the off hand. A zoom touches at most two slots.
+ */
+final class InventoryTransaction {
+
+    static final int OFF_HAND = 40;
+    static final int STORAGE_SIZE = 36;
+    private static final int MAX_SLOTS = 4;
+
+    private final Player player;
+    private final PlayerInventory inventory;
+    /** Slots can skip the per-write packet; the synced container is the player's own inventory */
+    private final boolean quiet;
+    private final int[] slots = new int[MAX_SLOTS];
+    private final ItemStack[] items = new ItemStack[MAX_SLOTS];
+    private int size;
+
+    InventoryTransaction(Player player) {
+        this.player = player;
+        this.inventory = player.getInventory();
+        this.quiet = NmsBridge.canSetSlots() && player.getOpenInventory().getType() == InventoryType.CRAFTING;
+    }
+
+    /** The item in the slot, counting staged changes. Null or air for an empty slot. */
+    ItemStack get(int slot) {
+        int index = indexOf(slot);
+        return index >= 0 ? items[index] : inventory.getItem(slot);
+    }
+
+    void set(int slot, ItemStack item) {
+        int index = indexOf(slot);
+        if (index < 0) {
+            if (size == MAX_SLOTS) {
+                // never reached by a zoom; write the oldest change through to make room
+                write(0);
+                System.arraycopy(slots, 1, slots, 0, size - 1);
+                System.arraycopy(items, 1, items, 0, size - 1);
+                size--;
+            }
+            index = size++;
+            slots[index] = slot;
+        }
+        items[index] = item;
+    }
+
+    /** Like {@link PlayerInventory#firstEmpty()}, counting staged changes. */
+    int firstEmpty() {
+        boolean stagedStorage = false;
+        for (int i = 0; i < size; i++) {
+            stagedStorage |= slots[i] < STORAGE_SIZE;
+        }
+        if (!stagedStorage) {
+            return inventory.firstEmpty();
+        }
+        for (int slot = 0; slot < STORAGE_SIZE; slot++) {
+            if (isEmpty(get(slot))) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes every staged slot that differs from the inventory.
+     *
+     * @return number of slots written
+     */
+    int apply() {
+        int written = 0;
+        for (int i = 0; i < size; i++) {
+            if (write(i)) written++;
+        }
+        return written;
+    }
+
+    private boolean write(int index) {
+        ItemStack current = inventory.getItem(slots[index]);
+        ItemStack staged = items[index];
+        if (isEmpty(current) ? isEmpty(staged) : current.equals(staged)) return false;
+        if (!quiet || !NmsBridge.setSlot(player, slots[index], staged != null ? staged : new ItemStack(Material.AIR))) {
+            inventory.setItem(slots[index], staged);
+        }
+        return true;
+    }
+
+    private int indexOf(int slot) {
+        for (int i = 0; i < size; i++) {
+            if (slots[i] == slot) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType().isAir() || item.getAmount() <= 0;
+    }
+}
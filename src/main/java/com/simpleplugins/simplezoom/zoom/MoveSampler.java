@@ -0,0 +1,75 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
+import com.simpleplugins.simplezoom.scheduler.ZoomScheduler;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.function.Consumer;
+
+/**
+ * Sampled alternative to {@link com.simpleplugins.simplezoom.listener.PlayerMoveListener}
+ * for move-detection: sampled. Instead of handling every move packet, it reads
+ * the position of zooming players only, once per move-check-interval ticks, and
+ * ends the zoom once a player is more than move-distance blocks from where the
+ * zoom started. Head rotation never changes the position, so looking around is
+ * free. Positions are read into one reused {@link Location}; a pass allocates
+ * nothing.
+ * <p>
+ * Runs on the global thread. On Folia the removal is handed to the player's
+ * own thread, since only that thread may touch their inventory.
+ */
+public final class MoveSampler implements Runnable {
+
+    private final SimpleZoom plugin;
+    private final ZoomManager zoomManager;
+    private final ZoomScheduler scheduler;
+    private final boolean folia;
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private final Consumer<ZoomSession> checkSession = this::check;
+    private double maxDistanceSquared;
+
+    public MoveSampler(SimpleZoom plugin, ZoomManager zoomManager) {
+        this.plugin = plugin;
+        this.zoomManager = zoomManager;
+        this.scheduler = plugin.getZoomScheduler();
+        this.folia = ZoomScheduler.isFolia();
+    }
+
+    @Override
+    public void run() {
+        ZoomMetrics metrics = zoomManager.getMetrics();
+        long start = metrics.start();
+        double distance = plugin.getSettings().moveDistance();
+        maxDistanceSquared = distance * distance;
+        zoomManager.forEachSession(checkSession);
+        metrics.stop(metrics.moveSampler, start);
+    }
+
+    private void check(ZoomSession session) {
+        if (!session.removesOn(ZoomSession.REMOVE_ON_MOVE)) return;
+        Player player = session.player();
+        Location at = player.getLocation(scratch);
+        if (session.anchorWorld == null) {
+            session.anchorWorld = at.getWorld();
+            session.anchorX = at.getX();
+            session.anchorY = at.getY();
+            session.anchorZ = at.getZ();
+            return;
+        }
+
+        double dx = at.getX() - session.anchorX;
+        double dy = at.getY() - session.anchorY;
+        double dz = at.getZ() - session.anchorZ;
+        if (at.getWorld() == session.anchorWorld && dx * dx + dy * dy + dz * dz <= maxDistanceSquared) {
+            return;
+        }
+        if (folia) {
+            scheduler.runForPlayer(player, () -> zoomManager.removeSpyglass(player, ZoomEndReason.MOVE));
+        } else {
+            zoomManager.removeSpyglass(player, ZoomEndReason.MOVE);
+        }
+    }
+}
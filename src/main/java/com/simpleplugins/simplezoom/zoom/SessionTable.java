@@ -0,0 +1,141 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import java.util.function.Consumer;
+
+/**
+ * Open-addressing table of active sessions keyed by the player's entity id.
+ * <p>
+ * Lookups are lock-free and cost a volatile read when nobody zooms, which is
+ * the answer almost every event gets. Writes are synchronized. Removed slots
+ * become tombstones instead of shifting neighbours, so a concurrent reader
+ * never misses an entry that is not itself being changed; the array is only
+ * rebuilt into a fresh copy that is published in one write.
+ */
+final class SessionTable {
+
+    private static final ZoomSession TOMBSTONE = ZoomSession.tombstone();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile ZoomSession[] slots = new ZoomSession[INITIAL_CAPACITY];
+    private volatile int size;
+    /** Live entries plus tombstones; guarded by this */
+    private int used;
+
+    ZoomSession get(int entityId) {
+        if (size == 0) return null;
+        ZoomSession[] tab = slots;
+        int mask = tab.length - 1;
+        for (int i = mix(entityId) & mask; ; i = (i + 1) & mask) {
+            ZoomSession s = tab[i];
+            if (s == null) return null;
+            if (s.entityId() == entityId) return s;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Inserts the session, replacing any existing one for the same entity.
+     *
+     * @return the number of sessions after the insert
+     */
+    synchronized int put(ZoomSession session) {
+        if ((used + 1) * 4 > slots.length * 3) {
+            rebuild(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, size) * 4)));
+        }
+        ZoomSession[] tab = slots;
+        int mask = tab.length - 1;
+        int free = -1;
+        for (int i = mix(session.entityId()) & mask; ; i = (i + 1) & mask) {
+            ZoomSession s = tab[i];
+            if (s == null) {
+                if (free < 0) {
+                    free = i;
+                    used++;
+                }
+                break;
+            }
+            if (s == TOMBSTONE) {
+                if (free < 0) free = i;
+            } else if (s.entityId() == session.entityId()) {
+                tab[i] = session;
+                return size;
+            }
+        }
+        tab[free] = session;
+        return ++size;
+    }
+
+    synchronized ZoomSession remove(int entityId) {
+        ZoomSession[] tab = slots;
+        int mask = tab.length - 1;
+        for (int i = mix(entityId) & mask; ; i = (i + 1) & mask) {
+            ZoomSession s = tab[i];
+            if (s == null) return null;
+            if (s.entityId() == entityId) {
+                tab[i] = TOMBSTONE;
+                if (--size == 0) {
+                    slots = new ZoomSession[INITIAL_CAPACITY];
+                    used = 0;
+                }
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Removes every session at once.
+     *
+     * @return the sessions that were live
+     */
+    synchronized ZoomSession[] drain() {
+        ZoomSession[] live = new ZoomSession[size];
+        int n = 0;
+        for (ZoomSession s : slots) {
+            if (s != null && s != TOMBSTONE) {
+                live[n++] = s;
+            }
+        }
+        slots = new ZoomSession[INITIAL_CAPACITY];
+        size = 0;
+        used = 0;
+        return live;
+    }
+
+    /**
+     * Visits every live session. The callback may remove sessions; entries
+     * added during the walk may or may not be seen.
+     */
+    void forEach(Consumer<ZoomSession> action) {
+        if (size == 0) return;
+        ZoomSession[] tab = slots;
+        for (ZoomSession s : tab) {
+            if (s != null && s != TOMBSTONE) {
+                action.accept(s);
+            }
+        }
+    }
+
+    private void rebuild(int capacity) {
+        ZoomSession[] old = slots;
+        ZoomSession[] tab = new ZoomSession[capacity];
+        int mask = capacity - 1;
+        for (ZoomSession s : old) {
+            if (s == null || s == TOMBSTONE) continue;
+            int i = mix(s.entityId()) & mask;
+            while (tab[i] != null) {
+                i = (i + 1) & mask;
+            }
+            tab[i] = s;
+        }
+        used = size;
+        slots = tab;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,132 +1,660 @@
 package com.simpleplugins.simplezoom.zoom;
 
 import com.simpleplugins.simplezoom.SimpleZoom;
+import com.simpleplugins.simplezoom.ZoomSettings;
+import com.simpleplugins.simplezoom.api.ZoomEndEvent;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.api.ZoomStartEvent;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
+import com.simpleplugins.simplezoom.nms.NmsBridge;
+import com.simpleplugins.simplezoom.scheduler.ZoomScheduler;
+import com.simpleplugins.simplezoom.storage.PreferenceStore;
+import com.simpleplugins.simplezoom.storage.RestoreJournal;
+import com.simpleplugins.simplezoom.storage.SessionHandoff;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.EquipmentSlotGroup;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
+
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 /**
  * Tracks players who received a spyglass via /zoom and their previous off-hand item.
- * Restoration logic:
+ * Each zooming player has exactly one {@link ZoomSession}; its stash says how to restore:
  * - Empty hand: track for removal only (spyglass removed, off-hand set to air)
  * - Free inventory slot: move item to that slot, restore from slot when done
  * - Full inventory: store in memory (full copy), restore when done
+ * - FOV mode: no item is touched; a movement-speed modifier narrows the view
+ * Every session is also written to the {@link RestoreJournal} so it can be
+ * restored on the player's next join if the server dies mid-zoom.
+ * <p>
+ * Every path stages its slot changes in an {@link InventoryTransaction} and
+ * applies it before returning, so only slots whose item actually changes are
+ * written and the inventory is never out of step with the session. The
+ * client hears about the net change once per tick.
  */
 public final class ZoomManager {
 
     private static final String STORED_KEY = "stored";
+    private static final String VIEW_MODIFIER_KEY = "zoom-view";
+    private static final byte[] NO_ITEM = new byte[0];
 
     private final SimpleZoom plugin;
     private final NamespacedKey storedItemKey;
+    private final NamespacedKey viewModifierKey;
+    private final RestoreJournal journal;
+    private final ZoomMetrics metrics;
+
+    private final PreferenceStore preferences;
 
-    /** Players with zoom spyglass who had empty hand (no item to restore) */
-    private final Set<UUID> emptyHandZoomed = ConcurrentHashMap.newKeySet();
-    /** Slot index when item was moved to inventory; null when stored in memory */
-    private final Map<UUID, Integer> itemSlotByPlayer = new ConcurrentHashMap<>();
-    /** Item in memory when inventory was full; only set when itemSlot is null */
-    private final Map<UUID, ItemStack> itemMemoryByPlayer = new ConcurrentHashMap<>();
+    private final SessionTable sessions = new SessionTable();
+    private final AtomicIntegerArray triggerCounts = new AtomicIntegerArray(ZoomSession.TRIGGER_COUNT);
+    private final ExpiryWheel expiry = new ExpiryWheel();
+    private final Consumer<ZoomSession> expire = this::expire;
+    private final boolean folia = ZoomScheduler.isFolia();
+    /** Called after the first session starts and after the last one ends */
+    private Runnable activityCallback = () -> { };
 
-    public ZoomManager(SimpleZoom plugin) {
+    public ZoomManager(SimpleZoom plugin, RestoreJournal journal, ZoomMetrics metrics, PreferenceStore preferences) {
         this.plugin = plugin;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.preferences = preferences;
         this.storedItemKey = new NamespacedKey(plugin, STORED_KEY);
+        this.viewModifierKey = new NamespacedKey(plugin, VIEW_MODIFIER_KEY);
+    }
+
+    /**
+     * Starts a zoom in the configured mode. In FOV mode there is no spyglass
+     * to stop using, so running /zoom again ends the zoom.
+     */
+    public void zoom(Player player) {
+        if (player == null) return;
+        if (plugin.getSettings().zoomMode() != ZoomMode.FOV) {
+            giveSpyglass(player);
+            return;
+        }
+        ZoomSession session = sessions.get(player.getEntityId());
+        if (session == null) {
+            applyViewModifier(player);
+        } else if (session.stash() instanceof ZoomSession.ViewModifier) {
+            removeSpyglass(player, ZoomEndReason.COMMAND);
+        }
+    }
+
+    /**
+     * FOV mode: adds a transient movement-speed modifier, which the client
+     * turns into a narrower field of view. Transient modifiers are never saved
+     * with the player, so there is nothing to journal or recover after a crash.
+     */
+    private void applyViewModifier(Player player) {
+        AttributeInstance speed = player.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
+        if (speed == null || !callStart(player, true)) return;
+        speed.removeModifier(viewModifierKey);
+        speed.addTransientModifier(new AttributeModifier(viewModifierKey, -plugin.getSettings().fovZoomStrength(),
+                AttributeModifier.Operation.MULTIPLY_SCALAR_1, EquipmentSlotGroup.ANY));
+        startSession(newSession(player, ZoomSession.ViewModifier.INSTANCE));
+        metrics.countGive(ZoomMetrics.Path.VIEW);
+    }
+
+    private void removeViewModifier(Player player) {
+        AttributeInstance speed = player.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
+        if (speed != null) {
+            speed.removeModifier(viewModifierKey);
+        }
+    }
+
+    private boolean hasViewModifier(Player player) {
+        AttributeInstance speed = player.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
+        return speed != null && speed.getModifier(viewModifierKey) != null;
     }
 
     /**
      * Gives spyglass to off hand.
      * Empty hand: no tracking. Free slot: move item there. Full: store in memory.
+     * Does nothing if the player is already zooming.
      */
     public void giveSpyglass(Player player) {
         if (player == null) return;
+        if (sessions.get(player.getEntityId()) != null) return;
+        if (!callStart(player, false)) return;
 
-        ItemStack current = player.getInventory().getItemInOffHand();
+        InventoryTransaction inventory = new InventoryTransaction(player);
+        ItemStack current = inventory.get(InventoryTransaction.OFF_HAND);
         if (current == null || current.getType().isAir() || current.getAmount() <= 0) {
-            emptyHandZoomed.add(player.getUniqueId());
-            player.getInventory().setItemInOffHand(new ItemStack(Material.SPYGLASS));
+            inventory.set(InventoryTransaction.OFF_HAND, new ItemStack(Material.SPYGLASS));
+            commit(inventory);
+            startSession(newSession(player, ZoomSession.EmptyHand.INSTANCE));
+            metrics.countGive(ZoomMetrics.Path.EMPTY);
             return;
         }
 
-        int emptySlot = player.getInventory().firstEmpty();
+        ZoomSession.Stash stash;
+        int emptySlot = inventory.firstEmpty();
         if (emptySlot >= 0) {
             ItemStack toMove = copyItemFully(current);
             markAsStored(toMove);
-            player.getInventory().setItem(emptySlot, toMove);
-            itemSlotByPlayer.put(player.getUniqueId(), emptySlot);
+            inventory.set(emptySlot, toMove);
+            stash = new ZoomSession.InSlot(emptySlot);
+            metrics.countGive(ZoomMetrics.Path.SLOT);
         } else {
-            itemMemoryByPlayer.put(player.getUniqueId(), copyItemFully(current));
+            stash = new ZoomSession.InMemory(copyItemFully(current));
+            metrics.countGive(ZoomMetrics.Path.MEMORY);
         }
 
-        player.getInventory().setItemInOffHand(new ItemStack(Material.SPYGLASS));
+        inventory.set(InventoryTransaction.OFF_HAND, new ItemStack(Material.SPYGLASS));
+        commit(inventory);
+        startSession(newSession(player, stash));
     }
 
     /**
-     * Removes spyglass and restores the previous item.
+     * Ends the zoom: removes spyglass and restores the previous item, or
+     * removes the view modifier in FOV mode.
+     *
+     * @param reason reported to {@link ZoomEndEvent} listeners
      */
-    public void removeSpyglass(Player player) {
+    public void removeSpyglass(Player player, ZoomEndReason reason) {
         if (player == null) return;
+        ZoomSession session = sessions.get(player.getEntityId());
+        if (session == null) return;
 
-        ItemStack current = player.getInventory().getItemInOffHand();
-        if (current.getType() != Material.SPYGLASS) return;
+        if (session.stash() instanceof ZoomSession.ViewModifier) {
+            endSession(session.entityId());
+            restore(player, session.stash(), null);
+        } else {
+            if (player.getInventory().getItemInOffHand().getType() != Material.SPYGLASS) return;
+            endSession(session.entityId());
+            InventoryTransaction inventory = new InventoryTransaction(player);
+            restore(player, session.stash(), inventory);
+            commit(inventory);
+        }
+        callEnd(player, reason);
+    }
 
-        if (emptyHandZoomed.remove(player.getUniqueId())) {
-            player.getInventory().setItemInOffHand(new ItemStack(Material.AIR));
-            return;
+    /**
+     * Ends a spyglass zoom whose spyglass is no longer in the off hand, with
+     * {@link ZoomEndReason#SPYGLASS_LOST}; see {@link #clear(Player, ZoomEndReason)}.
+     */
+    public void checkSpyglass(Player player) {
+        ZoomSession session = getSession(player);
+        if (session == null || session.stash() instanceof ZoomSession.ViewModifier) return;
+        if (player.getInventory().getItemInOffHand().getType() != Material.SPYGLASS) {
+            clear(player, ZoomEndReason.SPYGLASS_LOST);
         }
+    }
 
-        Integer slot = itemSlotByPlayer.remove(player.getUniqueId());
-        if (slot != null) {
-            StoredItemLocation found = findStoredItem(player);
-            if (found != null) {
-                player.getInventory().setItem(found.slot, null);
-                player.getInventory().setItemInOffHand(unmarkAndGet(found.item));
-            } else {
-                ItemStack inSlot = player.getInventory().getItem(slot);
-                if (inSlot != null && !inSlot.getType().isAir()) {
-                    player.getInventory().setItem(slot, null);
-                    player.getInventory().setItemInOffHand(unmarkAndGet(inSlot));
-                }
+    /**
+     * Fires {@link ZoomStartEvent} if anyone listens.
+     *
+     * @return false if a listener cancelled the zoom
+     */
+    private boolean callStart(Player player, boolean fovMode) {
+        if (ZoomStartEvent.getHandlerList().getRegisteredListeners().length == 0) return true;
+        return new ZoomStartEvent(player, fovMode).callEvent();
+    }
+
+    private void callEnd(Player player, ZoomEndReason reason) {
+        if (ZoomEndEvent.getHandlerList().getRegisteredListeners().length == 0) return;
+        new ZoomEndEvent(player, reason).callEvent();
+    }
+
+    /**
+     * Swaps the spyglass in the off hand back for the stashed item.
+     *
+     * @param inventory where to stage the change; unused for FOV-mode sessions
+     */
+    private void restore(Player player, ZoomSession.Stash stash, InventoryTransaction inventory) {
+        switch (stash) {
+            case ZoomSession.EmptyHand empty -> {
+                inventory.set(InventoryTransaction.OFF_HAND, null);
+                metrics.countRestore(ZoomMetrics.Path.EMPTY);
+            }
+            case ZoomSession.InSlot inSlot -> {
+                restoreFromSlot(inventory, inSlot.slot());
+                metrics.countRestore(ZoomMetrics.Path.SLOT);
+            }
+            case ZoomSession.InMemory inMemory -> {
+                inventory.set(InventoryTransaction.OFF_HAND, copyItemFully(inMemory.item()));
+                metrics.countRestore(ZoomMetrics.Path.MEMORY);
+            }
+            case ZoomSession.ViewModifier view -> {
+                removeViewModifier(player);
+                metrics.countRestore(ZoomMetrics.Path.VIEW);
             }
-            return;
         }
+    }
 
-        ItemStack saved = itemMemoryByPlayer.remove(player.getUniqueId());
-        if (saved != null) {
-            player.getInventory().setItemInOffHand(copyItemFully(saved));
+    private void restoreFromSlot(InventoryTransaction inventory, int slot) {
+        StoredItemLocation found = locateStoredItem(inventory, slot);
+        if (found != null) {
+            inventory.set(found.slot, null);
+            inventory.set(InventoryTransaction.OFF_HAND, unmarkAndGet(found.item));
+        } else {
+            ItemStack inSlot = inventory.get(slot);
+            if (inSlot != null && !inSlot.getType().isAir()) {
+                inventory.set(slot, null);
+                inventory.set(InventoryTransaction.OFF_HAND, unmarkAndGet(inSlot));
+            }
         }
     }
 
+    private void commit(InventoryTransaction inventory) {
+        metrics.countInventoryWrites(inventory.apply());
+    }
+
     public boolean hasZoomSpyglass(Player player) {
-        if (player == null) return false;
-        return emptyHandZoomed.contains(player.getUniqueId())
-                || itemSlotByPlayer.containsKey(player.getUniqueId())
-                || itemMemoryByPlayer.containsKey(player.getUniqueId());
+        return player != null && sessions.get(player.getEntityId()) != null;
+    }
+
+    /**
+     * Returns the player's active session, or null if they are not zooming.
+     */
+    public ZoomSession getSession(Player player) {
+        return player != null ? sessions.get(player.getEntityId()) : null;
+    }
+
+    /**
+     * Sets the callback run when the session count, or the count for any
+     * removal trigger, goes from zero to one or back.
+     */
+    public void setActivityCallback(Runnable activityCallback) {
+        this.activityCallback = activityCallback;
+    }
+
+    /**
+     * Number of active sessions that end on the given trigger, so listeners for
+     * a trigger nobody uses can stay unregistered.
+     */
+    public int getTriggerCount(int trigger) {
+        return triggerCounts.get(Integer.numberOfTrailingZeros(trigger));
+    }
+
+    private ZoomSession newSession(Player player, ZoomSession.Stash stash) {
+        return new ZoomSession(player, stash,
+                ZoomPreferences.triggers(preferences.get(player.getUniqueId()), plugin.getSettings()));
+    }
+
+    private void startSession(ZoomSession session) {
+        if (!(session.stash() instanceof ZoomSession.ViewModifier)) {
+            journal.record(session.playerId(), toJournalEntry(session.stash()));
+        }
+        boolean changed = sessions.put(session) == 1;
+        scheduleExpiry(session);
+        if (countTriggers(session, 1) || changed) {
+            activityCallback.run();
+        }
+    }
+
+    private ZoomSession endSession(int entityId) {
+        ZoomSession session = sessions.remove(entityId);
+        if (session == null) return null;
+        expiry.remove(session);
+        journal.remove(session.playerId());
+        boolean changed = sessions.size() == 0;
+        if (countTriggers(session, -1) || changed) {
+            activityCallback.run();
+        }
+        return session;
     }
 
     /**
-     * Cleans up tracking when player quits. Unmarks any stored item left in inventory.
+     * Puts a new session on the expiry wheel if max-zoom-duration or
+     * idle-timeout is set. The duration limit is fixed now; the idle timeout
+     * is re-read at every check.
      */
-    public void clear(Player player) {
+    private void scheduleExpiry(ZoomSession session) {
+        ZoomSettings settings = plugin.getSettings();
+        long maxTicks = settings.maxZoomDurationSeconds() * 20L;
+        long idleTicks = settings.idleTimeoutSeconds() * 20L;
+        if (maxTicks == 0 && idleTicks == 0) return;
+        long now = expiry.now();
+        session.maxDeadline = maxTicks > 0 ? now + maxTicks : Long.MAX_VALUE;
+        if (idleTicks > 0) {
+            sampleIdle(session);
+        }
+        scheduleNextCheck(session, now, idleTicks);
+    }
+
+    private void scheduleNextCheck(ZoomSession session, long now, long idleTicks) {
+        long untilMax = session.maxDeadline - now;
+        long delay = idleTicks > 0 ? Math.min(idleTicks, untilMax) : untilMax;
+        if (delay == Long.MAX_VALUE) return;
+        expiry.schedule(session, delay);
+    }
+
+    /**
+     * Advances the expiry wheel by one tick and ends or rechecks the sessions
+     * due. Run every tick on the global thread while someone zooms with a
+     * timeout configured; see {@link com.simpleplugins.simplezoom.listener.TriggerListenerRegistry}.
+     */
+    public void tickExpiry() {
+        expiry.advance(expire);
+    }
+
+    private void expire(ZoomSession session) {
+        Player player = session.player();
+        if (folia) {
+            plugin.getZoomScheduler().runForPlayer(player, () -> checkExpiry(session));
+        } else {
+            checkExpiry(session);
+        }
+    }
+
+    /**
+     * Ends the zoom if it reached max-zoom-duration or the player has neither
+     * moved nor turned since the last check; otherwise samples the player
+     * again and schedules the next check.
+     */
+    private void checkExpiry(ZoomSession session) {
+        if (sessions.get(session.entityId()) != session) return;
+        long now = expiry.now();
+        long idleTicks = plugin.getSettings().idleTimeoutSeconds() * 20L;
+        if (now >= session.maxDeadline) {
+            end(session, ZoomEndReason.MAX_DURATION);
+        } else if (idleTicks > 0 && isIdle(session)) {
+            end(session, ZoomEndReason.IDLE);
+        } else {
+            if (idleTicks > 0) {
+                sampleIdle(session);
+            }
+            scheduleNextCheck(session, now, idleTicks);
+        }
+    }
+
+    /**
+     * Ends the zoom, or drops it like {@link #clear(Player, ZoomEndReason)}
+     * if the spyglass already left the off hand.
+     */
+    private void end(ZoomSession session, ZoomEndReason reason) {
+        Player player = session.player();
+        removeSpyglass(player, reason);
+        if (sessions.get(session.entityId()) == session) {
+            clear(player, reason);
+        }
+    }
+
+    private static boolean isIdle(ZoomSession session) {
+        Location at = session.player().getLocation();
+        return at.getWorld() == session.idleWorld
+                && at.getX() == session.idleX && at.getY() == session.idleY && at.getZ() == session.idleZ
+                && at.getYaw() == session.idleYaw && at.getPitch() == session.idlePitch;
+    }
+
+    private static void sampleIdle(ZoomSession session) {
+        Location at = session.player().getLocation();
+        session.idleWorld = at.getWorld();
+        session.idleX = at.getX();
+        session.idleY = at.getY();
+        session.idleZ = at.getZ();
+        session.idleYaw = at.getYaw();
+        session.idlePitch = at.getPitch();
+    }
+
+    /**
+     * Adds delta to the count of every trigger the session uses.
+     *
+     * @return true if any count went from zero to one or back
+     */
+    private boolean countTriggers(ZoomSession session, int delta) {
+        boolean changed = false;
+        for (int i = 0; i < ZoomSession.TRIGGER_COUNT; i++) {
+            if (session.removesOn(1 << i)) {
+                int count = triggerCounts.addAndGet(i, delta);
+                changed |= delta > 0 ? count == 1 : count == 0;
+            }
+        }
+        return changed;
+    }
+
+    private RestoreJournal.Entry toJournalEntry(ZoomSession.Stash stash) {
+        return switch (stash) {
+            case ZoomSession.EmptyHand empty -> new RestoreJournal.Entry(RestoreJournal.EMPTY_HAND, -1, NO_ITEM);
+            case ZoomSession.InSlot inSlot -> new RestoreJournal.Entry(RestoreJournal.IN_SLOT, inSlot.slot(), NO_ITEM);
+            case ZoomSession.InMemory inMemory ->
+                    new RestoreJournal.Entry(RestoreJournal.IN_MEMORY, -1, serialize(inMemory.item()));
+            case ZoomSession.ViewModifier view -> new RestoreJournal.Entry(RestoreJournal.VIEW_MODIFIER, -1, NO_ITEM);
+        };
+    }
+
+    /**
+     * Serializes the item for the journal. An item that cannot be serialized is
+     * still held in memory; it just would not survive a crash.
+     */
+    private byte[] serialize(ItemStack item) {
+        try {
+            return item.serializeAsBytes();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not journal off-hand item " + item.getType(), e);
+            return NO_ITEM;
+        }
+    }
+
+    /**
+     * Applies a restore left in the journal by a crash or shutdown while the
+     * player was zooming. The spyglass in the off hand is swapped back for the
+     * original item; if the off hand holds something else, the saved player data
+     * predates the zoom and the original is still there, so nothing is given.
+     */
+    public void restorePending(Player player) {
         if (player == null) return;
-        emptyHandZoomed.remove(player.getUniqueId());
-        if (itemSlotByPlayer.remove(player.getUniqueId()) != null) {
-            StoredItemLocation found = findStoredItem(player);
-            if (found != null) {
-                unmarkAndGet(found.item);
+        RestoreJournal.Entry entry = journal.get(player.getUniqueId());
+        if (entry == null || sessions.get(player.getEntityId()) != null) return;
+
+        InventoryTransaction inventory = new InventoryTransaction(player);
+        boolean holdsSpyglass = inventory.get(InventoryTransaction.OFF_HAND).getType() == Material.SPYGLASS;
+        switch (entry.kind()) {
+            case RestoreJournal.EMPTY_HAND -> {
+                if (holdsSpyglass) {
+                    inventory.set(InventoryTransaction.OFF_HAND, null);
+                }
             }
+            case RestoreJournal.IN_SLOT -> {
+                StoredItemLocation found = locateStoredItem(inventory, entry.slot());
+                if (found != null) {
+                    ItemStack item = unmarkAndGet(found.item);
+                    if (holdsSpyglass) {
+                        inventory.set(found.slot, null);
+                        inventory.set(InventoryTransaction.OFF_HAND, item);
+                    }
+                }
+            }
+            case RestoreJournal.IN_MEMORY -> {
+                if (holdsSpyglass && entry.item().length > 0) {
+                    try {
+                        inventory.set(InventoryTransaction.OFF_HAND, ItemStack.deserializeBytes(entry.item()));
+                    } catch (RuntimeException e) {
+                        plugin.getLogger().log(Level.SEVERE, "Could not restore journaled off-hand item for " + player.getName(), e);
+                        return;
+                    }
+                }
+            }
+            default -> plugin.getLogger().warning("Unknown restore journal entry for " + player.getName());
+        }
+        commit(inventory);
+        journal.remove(player.getUniqueId());
+    }
+
+    /**
+     * Ends every session in one pass, for a real shutdown: each player gets
+     * their item back, and the journal entries are removed in one batch that
+     * the journal's close flushes. Does not run the activity callback; the
+     * plugin is going away.
+     * {@link ZoomEndEvent} listeners hear {@link ZoomEndReason#DISABLE}.
+     *
+     * @return the number of sessions ended
+     */
+    public int drain() {
+        expiry.clear();
+        ZoomSession[] drained = sessions.drain();
+        for (ZoomSession session : drained) {
+            Player player = session.player();
+            journal.remove(session.playerId());
+            countTriggers(session, -1);
+            if (!player.isOnline()) continue;
+            InventoryTransaction inventory = new InventoryTransaction(player);
+            if (inventory.get(InventoryTransaction.OFF_HAND).getType() == Material.SPYGLASS) {
+                restore(player, session.stash(), inventory);
+            } else {
+                release(player, session.stash(), inventory);
+            }
+            commit(inventory);
+            callEnd(player, ZoomEndReason.DISABLE);
         }
-        itemMemoryByPlayer.remove(player.getUniqueId());
+        return drained.length;
     }
 
-    private StoredItemLocation findStoredItem(Player player) {
-        ItemStack[] contents = player.getInventory().getStorageContents();
-        for (int i = 0; i < contents.length; i++) {
-            ItemStack item = contents[i];
+    /**
+     * Describes every active session for {@link SessionHandoff}, without
+     * ending anything. Journal entries are reused so memory-held items are not
+     * serialized twice.
+     */
+    public Map<UUID, RestoreJournal.Entry> snapshot() {
+        Map<UUID, RestoreJournal.Entry> snapshot = new HashMap<>();
+        sessions.forEach(session -> {
+            RestoreJournal.Entry entry = journal.get(session.playerId());
+            snapshot.put(session.playerId(), entry != null ? entry : toJournalEntry(session.stash()));
+        });
+        return snapshot;
+    }
+
+    /**
+     * Takes over sessions handed off by the previous instance of the plugin.
+     * A session is only adopted if the player is online, still holds the
+     * spyglass and, for a parked item, the item is still in the inventory;
+     * anything else is left to {@link #restorePending(Player)}.
+     *
+     * @return the number of sessions adopted
+     */
+    public int adopt(Map<UUID, RestoreJournal.Entry> handoff) {
+        int adopted = 0;
+        for (Map.Entry<UUID, RestoreJournal.Entry> e : handoff.entrySet()) {
+            Player player = plugin.getServer().getPlayer(e.getKey());
+            if (player == null || sessions.get(player.getEntityId()) != null) continue;
+
+            RestoreJournal.Entry entry = e.getValue();
+            if (entry.kind() == RestoreJournal.VIEW_MODIFIER) {
+                if (hasViewModifier(player)) {
+                    ZoomSession session = newSession(player, ZoomSession.ViewModifier.INSTANCE);
+                    sessions.put(session);
+                    scheduleExpiry(session);
+                    countTriggers(session, 1);
+                    adopted++;
+                }
+                continue;
+            }
+            InventoryTransaction inventory = new InventoryTransaction(player);
+            if (inventory.get(InventoryTransaction.OFF_HAND).getType() != Material.SPYGLASS) continue;
+
+            ZoomSession.Stash stash = switch (entry.kind()) {
+                case RestoreJournal.EMPTY_HAND -> ZoomSession.EmptyHand.INSTANCE;
+                case RestoreJournal.IN_SLOT -> locateStoredItem(inventory, entry.slot()) != null
+                        ? new ZoomSession.InSlot(entry.slot()) : null;
+                case RestoreJournal.IN_MEMORY -> {
+                    try {
+                        yield entry.item().length > 0
+                                ? new ZoomSession.InMemory(ItemStack.deserializeBytes(entry.item())) : null;
+                    } catch (RuntimeException ex) {
+                        plugin.getLogger().log(Level.WARNING, "Could not read handed-off item for " + player.getName(), ex);
+                        yield null;
+                    }
+                }
+                default -> null;
+            };
+            if (stash == null) continue;
+            journal.record(player.getUniqueId(), entry);
+            ZoomSession session = newSession(player, stash);
+            sessions.put(session);
+            scheduleExpiry(session);
+            countTriggers(session, 1);
+            adopted++;
+        }
+        if (adopted > 0) {
+            activityCallback.run();
+        }
+        return adopted;
+    }
+
+    public ZoomMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    void forEachSession(Consumer<ZoomSession> action) {
+        sessions.forEach(action);
+    }
+
+    /**
+     * Drops tracking when the spyglass can no longer be swapped back (it left the
+     * off hand). Unmarks any stored item left in inventory and hands a memory-held
+     * item back through the inventory, dropping what does not fit.
+     *
+     * @param reason reported to {@link ZoomEndEvent} listeners
+     */
+    public void clear(Player player, ZoomEndReason reason) {
+        if (player == null) return;
+        ZoomSession session = endSession(player.getEntityId());
+        if (session == null) return;
+        InventoryTransaction inventory = new InventoryTransaction(player);
+        release(player, session.stash(), inventory);
+        commit(inventory);
+        callEnd(player, reason);
+    }
+
+    /**
+     * Gives the stashed item back without touching the off hand. The parked
+     * item is unmarked where it lies; a memory-held item goes straight into
+     * the inventory, since it has no slot of its own.
+     */
+    private void release(Player player, ZoomSession.Stash stash, InventoryTransaction inventory) {
+        switch (stash) {
+            case ZoomSession.EmptyHand empty -> {
+            }
+            case ZoomSession.InSlot inSlot -> {
+                StoredItemLocation found = locateStoredItem(inventory, inSlot.slot());
+                if (found != null) {
+                    inventory.set(found.slot, unmarkAndGet(found.item));
+                }
+            }
+            case ZoomSession.InMemory inMemory -> {
+                Map<Integer, ItemStack> leftover = player.getInventory().addItem(copyItemFully(inMemory.item()));
+                for (ItemStack rest : leftover.values()) {
+                    player.getWorld().dropItem(player.getLocation(), rest);
+                }
+            }
+            case ZoomSession.ViewModifier view -> removeViewModifier(player);
+        }
+    }
+
+    /**
+     * Finds the parked item, checking the slot it was parked in first. The full
+     * inventory scan only runs if something moved it anyway.
+     */
+    private StoredItemLocation locateStoredItem(InventoryTransaction inventory, int slot) {
+        ItemStack inSlot = inventory.get(slot);
+        if (isStoredItem(inSlot)) {
+            return new StoredItemLocation(inSlot, slot);
+        }
+        return findStoredItem(inventory);
+    }
+
+    private StoredItemLocation findStoredItem(InventoryTransaction inventory) {
+        for (int i = 0; i < InventoryTransaction.STORAGE_SIZE; i++) {
+            ItemStack item = inventory.get(i);
             if (item != null && !item.getType().isAir() && isMarkedStored(item)) {
                 return new StoredItemLocation(item, i);
             }
@@ -145,13 +673,14 @@ public final class ZoomManager {
     }
 
     private boolean isMarkedStored(ItemStack item) {
+        if (!item.hasItemMeta()) return false;
         ItemMeta meta = item.getItemMeta();
         return meta != null && meta.getPersistentDataContainer().has(storedItemKey, PersistentDataType.BYTE);
     }
 
     /**
      * Returns true if the item is our stored item (in a slot while player zooms).
-     * Used to block inventory interactions with it.
+     * Fallback check for the inventory guard, which normally decides by slot index.
      */
     public boolean isStoredItem(ItemStack item) {
         return item != null && !item.getType().isAir() && isMarkedStored(item);
@@ -170,12 +699,6 @@ public final class ZoomManager {
         if (item == null || item.getType().isAir() || item.getAmount() <= 0) {
             return new ItemStack(Material.AIR);
         }
-        try {
-            Class<?> craftClass = Class.forName("org.bukkit.craftbukkit.inventory.CraftItemStack");
-            java.lang.reflect.Method asCraftCopy = craftClass.getMethod("asCraftCopy", ItemStack.class);
-            return (ItemStack) asCraftCopy.invoke(null, item);
-        } catch (Throwable ignored) {
-            return item.clone();
-        }
+        return NmsBridge.copyItem(item);
     }
 }
@@ -0,0 +1,27 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import java.util.Locale;
+
+/**
+ * How /zoom zooms the player's view.
+ */
+public enum ZoomMode {
+    /** Puts a spyglass in the off hand and parks the previous item */
+    SPYGLASS,
+    /** Narrows the field of view with a movement-speed modifier; no item is moved */
+    FOV;
+
+    /**
+     * Parses a config value, case-insensitively.
+     *
+     * @return the mode, or null if the value names none
+     */
+    public static ZoomMode parse(String value) {
+        if (value == null) return null;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import com.simpleplugins.simplezoom.ZoomSettings;
+
+/**
+ * Encoding of a player's removal-trigger choice in the one byte kept by
+ * {@link com.simpleplugins.simplezoom.storage.PreferenceStore}: the high bit
+ * marks a custom choice, the low bits are {@link ZoomSession} trigger bits.
+ * Zero means the player never chose and follows the server defaults.
+ */
+public final class ZoomPreferences {
+
+    private static final int CUSTOM = 0x80;
+    private static final int TRIGGER_MASK = (1 << ZoomSession.TRIGGER_COUNT) - 1;
+
+    private ZoomPreferences() {
+    }
+
+    public static boolean isCustom(byte preference) {
+        return (preference & CUSTOM) != 0;
+    }
+
+    /**
+     * Trigger bits for a zoom started with this preference.
+     */
+    public static int triggers(byte preference, ZoomSettings settings) {
+        return isCustom(preference) ? preference & TRIGGER_MASK : settings.defaultTriggers();
+    }
+
+    public static byte custom(int triggers) {
+        return (byte) (CUSTOM | (triggers & TRIGGER_MASK));
+    }
+}
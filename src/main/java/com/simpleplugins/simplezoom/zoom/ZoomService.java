@@ -0,0 +1,37 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import com.simpleplugins.simplezoom.api.SimpleZoomService;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SimpleZoomService} backed by the {@link ZoomManager}'s session table.
+ * Kept apart from the manager so other plugins only see the read-only view.
+ */
+public final class ZoomService implements SimpleZoomService {
+
+    private final ZoomManager zoomManager;
+
+    public ZoomService(ZoomManager zoomManager) {
+        this.zoomManager = zoomManager;
+    }
+
+    @Override
+    public boolean isZooming(Player player) {
+        return zoomManager.getSession(player) != null;
+    }
+
+    @Override
+    public int getZoomingCount() {
+        return zoomManager.getSessionCount();
+    }
+
+    @Override
+    public List<Player> getZoomingPlayers() {
+        List<Player> players = new ArrayList<>(zoomManager.getSessionCount());
+        zoomManager.forEachSession(session -> players.add(session.player()));
+        return List.copyOf(players);
+    }
+}
@@ -0,0 +1,116 @@
+package com.simpleplugins.simplezoom.zoom;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * Everything SimpleZoom knows about one player while they zoom. Created by
+ * {@link ZoomManager#zoom(Player)} and dropped when the zoom ends; there is no
+ * other per-player state to keep in sync.
+ */
+public final class ZoomSession {
+
+    /** Removal trigger bits for {@link #removesOn(int)} */
+    public static final int REMOVE_ON_MOVE = 1;
+    public static final int REMOVE_ON_HOTBAR_SWITCH = 1 << 1;
+    public static final int REMOVE_ON_STOP_ZOOM = 1 << 2;
+    static final int TRIGGER_COUNT = 3;
+
+    private final Player player;
+    private final int entityId;
+    private final Stash stash;
+    private final byte triggers;
+
+    /** Set by the stop-zoom poller once it has seen this player use the spyglass */
+    boolean seenUsingSpyglass;
+
+    /** Position {@link MoveSampler} measures from; set on its first pass over this session */
+    World anchorWorld;
+    double anchorX;
+    double anchorY;
+    double anchorZ;
+
+    /** {@link ExpiryWheel} links and due tick; guarded by the wheel */
+    ZoomSession wheelPrev;
+    ZoomSession wheelNext;
+    long expiresAt;
+    boolean inWheel;
+
+    /** Wheel tick at which max-zoom-duration ends this zoom, or {@link Long#MAX_VALUE} */
+    long maxDeadline = Long.MAX_VALUE;
+    /** Position and view direction at the last idle-timeout check */
+    World idleWorld;
+    double idleX;
+    double idleY;
+    double idleZ;
+    float idleYaw;
+    float idlePitch;
+
+    ZoomSession(Player player, Stash stash, int triggers) {
+        this.player = player;
+        this.entityId = player.getEntityId();
+        this.stash = stash;
+        this.triggers = (byte) triggers;
+    }
+
+    /** Placeholder left in {@link SessionTable} slots after removal. */
+    private ZoomSession() {
+        this.player = null;
+        this.entityId = -1;
+        this.stash = EmptyHand.INSTANCE;
+        this.triggers = 0;
+    }
+
+    static ZoomSession tombstone() {
+        return new ZoomSession();
+    }
+
+    public Player player() {
+        return player;
+    }
+
+    public UUID playerId() {
+        return player.getUniqueId();
+    }
+
+    public int entityId() {
+        return entityId;
+    }
+
+    /**
+     * True if this zoom ends on the given trigger. Fixed when the zoom starts,
+     * from the player's preferences or the server defaults.
+     */
+    public boolean removesOn(int trigger) {
+        return (triggers & trigger) != 0;
+    }
+
+    /** Where the player's previous off-hand item is kept while zooming. */
+    public Stash stash() {
+        return stash;
+    }
+
+    public sealed interface Stash permits EmptyHand, InSlot, InMemory, ViewModifier {
+    }
+
+    /** Off hand was empty; nothing to restore. */
+    public record EmptyHand() implements Stash {
+        static final EmptyHand INSTANCE = new EmptyHand();
+    }
+
+    /** Item was parked in a free storage slot, marked with the stored-item PDC key. */
+    public record InSlot(int slot) implements Stash {
+    }
+
+    /** Inventory was full; a full copy of the item is held here. */
+    public record InMemory(ItemStack item) implements Stash {
+    }
+
+    /** FOV mode: no item was moved; a transient movement-speed modifier narrows the view. */
+    public record ViewModifier() implements Stash {
+        static final ViewModifier INSTANCE = new ViewModifier();
+    }
+}
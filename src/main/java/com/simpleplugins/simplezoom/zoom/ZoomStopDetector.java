@@ -1,90 +1,61 @@
 package com.simpleplugins.simplezoom.zoom;
 
-import com.simpleplugins.simplezoom.SimpleZoom;
-import org.bukkit.Bukkit;
+import com.simpleplugins.simplezoom.api.ZoomEndReason;
+import com.simpleplugins.simplezoom.metrics.ZoomMetrics;
+import com.simpleplugins.simplezoom.nms.NmsBridge;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Detects when a player stops zooming (releases right-click while using spyglass)
- * via NMS reflection. Runs every 2 ticks.
+ * through {@link NmsBridge}. Runs every 2 ticks. Fallback for servers without
+ * Paper's use-item events; see {@link com.simpleplugins.simplezoom.listener.PlayerStopUsingItemListener}.
+ * Never used on Folia, which always has those events.
  */
-public final class ZoomStopDetector extends BukkitRunnable {
+public final class ZoomStopDetector implements Runnable {
 
-    private final SimpleZoom plugin;
     private final ZoomManager zoomManager;
-    private final Map<UUID, Boolean> wasUsingLastTick = new ConcurrentHashMap<>();
+    private final Consumer<ZoomSession> checkSession = this::check;
 
-    private static Method getHandleMethod;
-    private static Method getUseItemMethod;
-
-    public ZoomStopDetector(SimpleZoom plugin, ZoomManager zoomManager) {
-        this.plugin = plugin;
+    public ZoomStopDetector(ZoomManager zoomManager) {
         this.zoomManager = zoomManager;
     }
 
-    private static boolean init(Player player) {
-        if (getHandleMethod != null) return true;
-        try {
-            Class<?> craftPlayerClass = player.getClass();
-            getHandleMethod = craftPlayerClass.getMethod("getHandle");
-            Object handle = getHandleMethod.invoke(player);
-            getUseItemMethod = handle.getClass().getMethod("getUseItem");
-        } catch (Throwable ignored) {
-            return false;
-        }
-        return true;
-    }
-
-    private static boolean isUsingSpyglass(Player player) {
-        if (getHandleMethod == null || getUseItemMethod == null) return false;
-        try {
-            Object handle = getHandleMethod.invoke(player);
-            Object nmsUseItem = getUseItemMethod.invoke(handle);
-            if (nmsUseItem == null) return false;
-
-            Class<?> nmsItemStackClass = Class.forName("net.minecraft.world.item.ItemStack");
-            Class<?> craftItemStackClass = Class.forName("org.bukkit.craftbukkit.inventory.CraftItemStack");
-            java.lang.reflect.Method asBukkitCopy = craftItemStackClass.getMethod("asBukkitCopy", nmsItemStackClass);
-            ItemStack bukkitStack = (ItemStack) asBukkitCopy.invoke(null, nmsUseItem);
-            return bukkitStack != null && bukkitStack.getType() == Material.SPYGLASS;
-        } catch (Throwable ignored) {
-            return false;
-        }
-    }
-
     @Override
     public void run() {
-        if (!plugin.getConfig().getBoolean("remove-on-stop-zoom", false)) return;
-
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (!zoomManager.hasZoomSpyglass(player)) continue;
+        if (zoomManager.getTriggerCount(ZoomSession.REMOVE_ON_STOP_ZOOM) == 0) return;
+        if (!NmsBridge.canDetectUseItem()) return;
 
-            if (!init(player)) continue;
+        ZoomMetrics metrics = zoomManager.getMetrics();
+        long start = metrics.start();
+        checkSessions();
+        metrics.stop(metrics.stopDetector, start);
+    }
 
-            ItemStack offHand = player.getInventory().getItemInOffHand();
-            if (offHand.getType() != Material.SPYGLASS) {
-                zoomManager.clear(player);
-                wasUsingLastTick.remove(player.getUniqueId());
-                continue;
-            }
+    /**
+     * One detection pass over every active session, without the trigger-count
+     * and NMS availability gates of {@link #run()}.
+     */
+    public void checkSessions() {
+        zoomManager.forEachSession(checkSession);
+    }
 
-            boolean currentlyUsing = isUsingSpyglass(player);
-            boolean wasUsing = wasUsingLastTick.getOrDefault(player.getUniqueId(), false);
+    private void check(ZoomSession session) {
+        if (session.stash() instanceof ZoomSession.ViewModifier) return;
+        Player player = session.player();
+        ItemStack offHand = player.getInventory().getItemInOffHand();
+        if (offHand.getType() != Material.SPYGLASS) {
+            zoomManager.clear(player, ZoomEndReason.SPYGLASS_LOST);
+            return;
+        }
 
-            if (wasUsing && !currentlyUsing) {
-                zoomManager.removeSpyglass(player);
-                wasUsingLastTick.remove(player.getUniqueId());
-            } else {
-                wasUsingLastTick.put(player.getUniqueId(), currentlyUsing);
-            }
+        if (NmsBridge.isUsingSpyglass(player)) {
+            session.seenUsingSpyglass = true;
+        } else if (session.seenUsingSpyglass && session.removesOn(ZoomSession.REMOVE_ON_STOP_ZOOM)) {
+            zoomManager.removeSpyglass(player, ZoomEndReason.STOP_ZOOM);
         }
     }
 }